@@ -0,0 +1,80 @@
+package pageview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Window shifts, jumps and data changes of the ViewFlow buffer. Shifts walk back and
+ * forth over the whole adapter, so the clamped windows at both ends are part of the mix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagingBenchmark {
+    private static final int VIEW_TYPE_COUNT = 3;
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int pageCount;
+
+    @Param({ "1", "2", "3", "4", "5" })
+    public int sideBuffer;
+
+    private StandInAdapter adapter;
+    private StandInFlow model;
+    private int direction;
+
+    @Setup
+    public void setUp() {
+        adapter = new StandInAdapter(pageCount, VIEW_TYPE_COUNT);
+        model = new StandInFlow(adapter, sideBuffer);
+        model.setSelection(pageCount / 2);
+        direction = 1;
+    }
+
+    @Benchmark
+    public StandInView shift() {
+        int next = model.getCurrent() + direction;
+        if (next < 0 || next >= pageCount) {
+            direction = -direction;
+            next = model.getCurrent() + direction;
+        }
+        return model.setSelection(next);
+    }
+
+    /**
+     * Jumps half the adapter away, binding a whole new window unless it is small.
+     */
+    @Benchmark
+    public StandInView jump() {
+        return model.setSelection((model.getCurrent() + pageCount / 2) % pageCount);
+    }
+
+    @Benchmark
+    public StandInView dataSetChanged() {
+        return model.dataSetChanged();
+    }
+
+    /**
+     * A stable-id data change where an item was inserted before the current one, so
+     * all but one page is kept and every kept page moves by one position.
+     */
+    @Benchmark
+    public StandInView dataSetChangedStableIds() {
+        adapter.shiftIds(1);
+        return model.dataSetChangedStableIds();
+    }
+}
@@ -0,0 +1,67 @@
+package pageview;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scrapping a full ViewFlow buffer and taking it back, mixed over the view types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecycleBinBenchmark {
+
+    @Param({ "1", "2", "3", "4", "5" })
+    public int sideBuffer;
+
+    @Param({ "1", "3" })
+    public int viewTypeCount;
+
+    private RecycleBin<StandInView> recycleBin;
+    private StandInView[] views;
+
+    @Setup
+    public void setUp() {
+        views = new StandInView[2 * sideBuffer + 1];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new StandInView();
+            views[i].viewType = i % viewTypeCount;
+        }
+        recycleBin = new RecycleBin<StandInView>(views.length,
+                new RecycleBin.OnDiscardListener<StandInView>() {
+
+                    @Override
+                    public void onDiscard(StandInView view) {
+                        throw new IllegalStateException("Discarded within capacity");
+                    }
+                });
+        recycleBin.setViewTypeCount(viewTypeCount);
+    }
+
+    @Benchmark
+    public StandInView scrapAndReuse() {
+        for (int i = 0; i < views.length; i++) {
+            recycleBin.addScrapView(views[i], views[i].viewType);
+        }
+        StandInView last = null;
+        for (int i = views.length - 1; i >= 0; i--) {
+            last = recycleBin.getScrapView(views[i].viewType);
+            views[i] = last;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,43 @@
+package pageview;
+
+/**
+ * Adapter stand-in with cheap, allocation-free binding, so the benchmarks measure the
+ * paging logic rather than page inflation. Item ids are stable and survive
+ * {@link #shiftIds(int)}, which stands for items inserted before the current ones.
+ */
+final class StandInAdapter {
+    private final int count;
+    private final int viewTypeCount;
+    private long idOffset;
+
+    StandInAdapter(int count, int viewTypeCount) {
+        this.count = count;
+        this.viewTypeCount = viewTypeCount;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getViewTypeCount() {
+        return viewTypeCount;
+    }
+
+    public int getItemViewType(int position) {
+        return position % viewTypeCount;
+    }
+
+    public long getItemId(int position) {
+        return position + idOffset;
+    }
+
+    public void shiftIds(int items) {
+        idOffset -= items;
+    }
+
+    public StandInView getView(int position, StandInView convertView) {
+        StandInView view = (convertView != null ? convertView : new StandInView());
+        view.boundItem = getItemId(position) * 31 + position;
+        return view;
+    }
+}
@@ -0,0 +1,138 @@
+package pageview;
+
+/**
+ * The buffer of a ViewFlow without the Android parts: the core {@link PageBuffer} and
+ * {@link RecycleBin} driven the way ViewFlow drives them, binding stand-in pages.
+ */
+final class StandInFlow implements PageBuffer.Host<StandInView> {
+    private final StandInAdapter adapter;
+    private final int sideBuffer;
+    private final PageBuffer<StandInView> buffer;
+    private final RecycleBin<StandInView> recycleBin;
+    private int current;
+    int discarded;
+
+    StandInFlow(StandInAdapter adapter, int sideBuffer) {
+        this.adapter = adapter;
+        this.sideBuffer = sideBuffer;
+        buffer = new PageBuffer<StandInView>(2 * sideBuffer + 1, this);
+        recycleBin = new RecycleBin<StandInView>(2 * sideBuffer + 1,
+                new RecycleBin.OnDiscardListener<StandInView>() {
+
+                    @Override
+                    public void onDiscard(StandInView view) {
+                        discarded++;
+                    }
+                });
+        recycleBin.setViewTypeCount(adapter.getViewTypeCount());
+    }
+
+    public int getCurrent() {
+        return current;
+    }
+
+    public StandInView getSelected() {
+        return buffer.getWindow().getAtPosition(current);
+    }
+
+    /**
+     * Switches or jumps to {@code position}, as postViewSwitched and setSelection do.
+     */
+    public StandInView setSelection(int position) {
+        current = Math.max(0, Math.min(position, adapter.getCount() - 1));
+        buffer.reconcile(current);
+        return getSelected();
+    }
+
+    /**
+     * Data change of an adapter without stable ids: every page is recycled and rebound.
+     */
+    public StandInView dataSetChanged() {
+        buffer.clear(current);
+        buffer.reconcile(current);
+        return getSelected();
+    }
+
+    /**
+     * Data change of an adapter with stable ids: the current item is looked up by id
+     * and the pages whose item is still in the window are kept.
+     */
+    public StandInView dataSetChangedStableIds() {
+        StandInView selected = getSelected();
+        int found = buffer.findItemPosition(selected.itemId, selected.position);
+        if (found != PageBuffer.INVALID_POSITION) {
+            current = found;
+        }
+        buffer.rebindChangedItems(current);
+        return getSelected();
+    }
+
+    @Override
+    public int getMinPosition() {
+        return 0;
+    }
+
+    @Override
+    public int getMaxPosition() {
+        return adapter.getCount() - 1;
+    }
+
+    @Override
+    public int getBufferBefore() {
+        return sideBuffer;
+    }
+
+    @Override
+    public int getBufferAfter() {
+        return sideBuffer;
+    }
+
+    @Override
+    public int getItemCount() {
+        return adapter.getCount();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return adapter.getItemViewType(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return adapter.getItemId(position);
+    }
+
+    @Override
+    public int getViewType(StandInView page) {
+        return page.viewType;
+    }
+
+    @Override
+    public long getItemId(StandInView page) {
+        return page.itemId;
+    }
+
+    @Override
+    public StandInView bind(int position, boolean addToEnd) {
+        final int viewType = adapter.getItemViewType(position);
+        StandInView convertView = recycleBin.getScrapView(viewType);
+        StandInView view = adapter.getView(position, convertView);
+        if (convertView != null && view != convertView) {
+            recycleBin.addScrapView(convertView, viewType);
+        }
+        view.position = position;
+        view.viewType = viewType;
+        view.itemId = adapter.getItemId(position);
+        return view;
+    }
+
+    @Override
+    public void recycle(StandInView page) {
+        recycleBin.addScrapView(page, page.viewType);
+    }
+
+    @Override
+    public void keep(StandInView page, int position) {
+        page.position = position;
+    }
+}
@@ -0,0 +1,11 @@
+package pageview;
+
+/**
+ * Page view stand-in: the state ViewFlow keeps in its layout params plus the bound item.
+ */
+final class StandInView {
+    int position;
+    int viewType;
+    long itemId;
+    long boundItem;
+}
@@ -0,0 +1,123 @@
+package pageview;
+
+/**
+ * Default {@link BufferPolicy}. At rest the page budget is split evenly on both sides;
+ * while the user travels in one direction the leading side grows at the expense of the
+ * trailing one, all of it on fast flings. The {@code TRIM_MEMORY_RUNNING_*} levels and low
+ * memory scale the budget down towards {@code minSide} pages per side; every later switch
+ * grows it back by one page. Other trim levels mean the flow is not visible and are ignored.
+ */
+public class AdaptiveBufferPolicy implements BufferPolicy {
+    // ComponentCallbacks2 levels, not available on every supported platform version
+    private static final int TRIM_MEMORY_RUNNING_MODERATE = 5;
+    private static final int TRIM_MEMORY_RUNNING_LOW = 10;
+    private static final int TRIM_MEMORY_RUNNING_CRITICAL = 15;
+
+    private static final int DEFAULT_FAST_VELOCITY = 2500;
+
+    private final int minSide;
+    private final int maxSide;
+    private final int normalBudget;
+    private int fastVelocity = DEFAULT_FAST_VELOCITY;
+    private int budget;
+    private int direction;
+    private int velocity;
+    private int before;
+    private int after;
+
+    /**
+     * @param minSide    pages always kept on each side, also the floor under memory pressure
+     * @param sideBuffer pages kept on each side at rest
+     * @param maxSide    most pages kept on the leading side
+     */
+    public AdaptiveBufferPolicy(int minSide, int sideBuffer, int maxSide) {
+        if (minSide < 0 || sideBuffer < minSide || maxSide < sideBuffer) {
+            throw new IllegalArgumentException("Expected 0 <= minSide <= sideBuffer <= maxSide");
+        }
+        this.minSide = minSide;
+        this.maxSide = maxSide;
+        normalBudget = 2 * sideBuffer;
+        budget = normalBudget;
+        update();
+    }
+
+    /**
+     * Sets the release velocity in pixels per second above which the whole spare budget
+     * goes to the leading side.
+     */
+    public void setFastVelocity(int fastVelocity) {
+        this.fastVelocity = fastVelocity;
+        update();
+    }
+
+    @Override
+    public int getMaxBufferSize() {
+        return 2 * maxSide + 1;
+    }
+
+    @Override
+    public int getBufferBefore() {
+        return before;
+    }
+
+    @Override
+    public int getBufferAfter() {
+        return after;
+    }
+
+    @Override
+    public void onSwitched(int direction, int velocity) {
+        this.direction = direction;
+        this.velocity = velocity;
+        if (budget < normalBudget) {
+            budget++;
+        }
+        update();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int trimmed;
+        switch (level) {
+        case TRIM_MEMORY_RUNNING_MODERATE:
+            trimmed = minSide + normalBudget / 2;
+            break;
+        case TRIM_MEMORY_RUNNING_LOW:
+            trimmed = (3 * minSide + normalBudget / 2) / 2;
+            break;
+        case TRIM_MEMORY_RUNNING_CRITICAL:
+            trimmed = 2 * minSide;
+            break;
+        default:
+            return;
+        }
+        budget = Math.min(budget, trimmed);
+        update();
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_RUNNING_CRITICAL);
+    }
+
+    private void update() {
+        int lead;
+        if (direction == 0) {
+            lead = budget - budget / 2;
+        } else if (velocity >= fastVelocity) {
+            lead = budget - minSide;
+        } else {
+            lead = (2 * budget + 2) / 3;
+        }
+        lead = Math.max(minSide, Math.min(lead, maxSide));
+        int trail = Math.max(minSide, Math.min(budget - lead, maxSide));
+
+        if (direction < 0) {
+            before = lead;
+            after = trail;
+        } else {
+            before = trail;
+            after = lead;
+        }
+    }
+}
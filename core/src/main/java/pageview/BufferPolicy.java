@@ -0,0 +1,32 @@
+package pageview;
+
+/**
+ * Decides how many pages {@link ViewFlow} keeps loaded on each side of the current page.
+ * The policy is asked again after every switch and memory signal, so it may change the
+ * shape of the buffer at any time within {@link #getMaxBufferSize()}.
+ */
+public interface BufferPolicy {
+
+    /**
+     * Upper bound for {@code getBufferBefore() + 1 + getBufferAfter()}, used to size the buffer.
+     */
+    public int getMaxBufferSize();
+
+    public int getBufferBefore();
+
+    public int getBufferAfter();
+
+    /**
+     * @param direction positive when moving forward, negative when moving back
+     * @param velocity  absolute release velocity in pixels per second, 0 for programmatic switches
+     */
+    public void onSwitched(int direction, int velocity);
+
+    /**
+     * Receives {@code ComponentCallbacks2} trim levels forwarded through
+     * {@link ViewFlow#onTrimMemory(int)}.
+     */
+    public void onTrimMemory(int level);
+
+    public void onLowMemory();
+}
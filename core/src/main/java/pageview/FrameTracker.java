@@ -0,0 +1,170 @@
+package pageview;
+
+import java.util.Arrays;
+
+/**
+ * Measures the frames of {@link ViewFlow} gestures, from the touch down to the end of the
+ * snap that follows. A frame lasts from the first invalidation after the previous frame
+ * to the end of its drawing, so a slow draw counts in full while idle time with a resting
+ * finger does not. An invalidation during a draw starts the next frame when that draw
+ * ends, so frames requested back to back are timed from one draw end to the next. At the
+ * end of each gesture the listener receives a summary indexed by the {@code SUMMARY_}
+ * constants. The summary array is reused, copy it to keep it.
+ * <p>
+ * Time comes from a {@link Clock}, so the tracker can be driven by a fake clock.
+ */
+public class FrameTracker {
+    public static final int SUMMARY_FRAMES = 0;
+    public static final int SUMMARY_DROPPED_FRAMES = 1;
+    public static final int SUMMARY_P50_NANOS = 2;
+    public static final int SUMMARY_P95_NANOS = 3;
+    public static final int SUMMARY_MAX_NANOS = 4;
+    public static final int SUMMARY_BIND_NANOS = 5;
+    public static final int SUMMARY_DURATION_NANOS = 6;
+    public static final int SUMMARY_SIZE = 7;
+
+    public static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+    private static final long NONE = -1;
+
+    public static interface Clock {
+        long nanoTime();
+    }
+
+    public static interface Listener {
+        void onGestureFinished(long[] summary);
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Clock clock;
+    private final long frameIntervalNanos;
+    private final long[] summary = new long[SUMMARY_SIZE];
+    private long[] frames = new long[128];
+    private long[] sorted = new long[128];
+    private int frameCount;
+    private long bindNanos;
+    private long gestureStart = NONE;
+    private long frameRequested = NONE;
+    private long frameStart = NONE;
+    private Listener listener;
+
+    public FrameTracker() {
+        this(SYSTEM_CLOCK, DEFAULT_FRAME_INTERVAL_NANOS);
+    }
+
+    public FrameTracker(Clock clock, long frameIntervalNanos) {
+        this.clock = clock;
+        this.frameIntervalNanos = frameIntervalNanos;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isTracking() {
+        return gestureStart != NONE;
+    }
+
+    /**
+     * Starts a gesture. A gesture already in progress, like a snap caught by a new
+     * touch, just goes on.
+     */
+    public void begin() {
+        if (gestureStart != NONE) {
+            return;
+        }
+        gestureStart = clock.nanoTime();
+        frameRequested = NONE;
+        frameStart = NONE;
+        frameCount = 0;
+        bindNanos = 0;
+    }
+
+    public void onFrameRequested() {
+        if (gestureStart != NONE && frameRequested == NONE) {
+            frameRequested = clock.nanoTime();
+        }
+    }
+
+    /**
+     * The requested frame starts drawing; invalidations from now on request the next one.
+     */
+    public void onFrameDrawStarted() {
+        if (gestureStart == NONE || frameRequested == NONE) {
+            return;
+        }
+        frameStart = frameRequested;
+        frameRequested = NONE;
+    }
+
+    public void onFrameDrawn() {
+        if (gestureStart == NONE || frameStart == NONE) {
+            return;
+        }
+        if (frameCount == frames.length) {
+            long[] grown = new long[frameCount * 2];
+            System.arraycopy(frames, 0, grown, 0, frameCount);
+            frames = grown;
+            sorted = new long[grown.length];
+        }
+        final long now = clock.nanoTime();
+        frames[frameCount++] = now - frameStart;
+        frameStart = NONE;
+        if (frameRequested != NONE) {
+            // Requested while drawing, the next frame could not start before now
+            frameRequested = now;
+        }
+    }
+
+    public void onPageBound(long nanos) {
+        if (gestureStart != NONE) {
+            bindNanos += nanos;
+        }
+    }
+
+    /**
+     * Ends the gesture and delivers its summary.
+     */
+    public void end() {
+        if (gestureStart == NONE) {
+            return;
+        }
+        summary[SUMMARY_DURATION_NANOS] = clock.nanoTime() - gestureStart;
+        gestureStart = NONE;
+
+        long dropped = 0;
+        for (int i = 0; i < frameCount; i++) {
+            dropped += Math.max(0, (frames[i] + frameIntervalNanos / 2) / frameIntervalNanos - 1);
+        }
+        System.arraycopy(frames, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+
+        summary[SUMMARY_FRAMES] = frameCount;
+        summary[SUMMARY_DROPPED_FRAMES] = dropped;
+        summary[SUMMARY_P50_NANOS] = percentile(50);
+        summary[SUMMARY_P95_NANOS] = percentile(95);
+        summary[SUMMARY_MAX_NANOS] = frameCount > 0 ? sorted[frameCount - 1] : 0;
+        summary[SUMMARY_BIND_NANOS] = bindNanos;
+        if (listener != null) {
+            listener.onGestureFinished(summary);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of the sorted frame times.
+     */
+    private long percentile(int percent) {
+        if (frameCount == 0) {
+            return 0;
+        }
+        int rank = (percent * frameCount + 99) / 100;
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,149 @@
+package pageview;
+
+/**
+ * Dot positions of a {@link PageIndicator}: where the current page dot sits for a flow
+ * scroll offset, which window of dots is drawn, and the horizontal span a dot move
+ * dirties. Offsets are pixels from where the dot slot of page 0 would start; the view
+ * adds its padding and centering. Nothing here allocates.
+ */
+class IndicatorDots {
+    private int dotWidth;
+    private int margin;
+    private int pagesCount;
+    private int maxVisibleDots;
+    private int firstVisibleDot;
+    private int currentPage;
+    private int currentDotOffset;
+    private int dirtyStart;
+    private int dirtyEnd;
+
+    IndicatorDots(int maxVisibleDots) {
+        this.maxVisibleDots = Math.max(1, maxVisibleDots);
+    }
+
+    public void setDotSize(int dotWidth, int margin) {
+        this.dotWidth = dotWidth;
+        this.margin = margin;
+        currentDotOffset = currentPage * getStep();
+    }
+
+    public void setPageCount(int pagesCount) {
+        this.pagesCount = pagesCount;
+        currentPage = Math.max(0, Math.min(currentPage, pagesCount - 1));
+        currentDotOffset = currentPage * getStep();
+        updateFirstVisibleDot();
+    }
+
+    public int getPageCount() {
+        return pagesCount;
+    }
+
+    /**
+     * @return whether the window of drawn dots moved
+     */
+    public boolean setMaxVisibleDots(int maxVisibleDots) {
+        this.maxVisibleDots = Math.max(1, maxVisibleDots);
+        return updateFirstVisibleDot();
+    }
+
+    public int getStep() {
+        return dotWidth + 2 * margin;
+    }
+
+    public int getVisibleDotsCount() {
+        return Math.min(pagesCount, maxVisibleDots);
+    }
+
+    public int getFirstVisibleDot() {
+        return firstVisibleDot;
+    }
+
+    public int getCurrentPage() {
+        return currentPage;
+    }
+
+    public int getCurrentDotOffset() {
+        return currentDotOffset;
+    }
+
+    /**
+     * Left edge of the dot drawn at {@code offset}, relative to the first drawn slot.
+     */
+    public int getDotLeft(int offset) {
+        return offset - firstVisibleDot * getStep() + margin;
+    }
+
+    /**
+     * The dot offset for a flow scrolled {@code scrollX} pixels from its first page,
+     * kept within the drawn dots.
+     */
+    public int getScrollOffset(int scrollX, int pageWidth) {
+        if (pageWidth <= 0 || pagesCount == 0) {
+            return currentDotOffset;
+        }
+        final int step = getStep();
+        final int offset = (int) ((long) scrollX * step / pageWidth);
+        return Math.max(firstVisibleDot * step,
+                Math.min(offset, (firstVisibleDot + getVisibleDotsCount() - 1) * step));
+    }
+
+    /**
+     * Moves the current page dot to {@code offset}. The span it covered before and after
+     * is then given by {@link #getDirtyStart()} and {@link #getDirtyEnd()}.
+     *
+     * @return whether the dot moved
+     */
+    public boolean moveCurrentDot(int offset) {
+        if (offset == currentDotOffset) {
+            return false;
+        }
+        dirtyStart = getDotLeft(Math.min(offset, currentDotOffset));
+        dirtyEnd = getDotLeft(Math.max(offset, currentDotOffset)) + dotWidth;
+        currentDotOffset = offset;
+        return true;
+    }
+
+    public int getDirtyStart() {
+        return dirtyStart;
+    }
+
+    public int getDirtyEnd() {
+        return dirtyEnd;
+    }
+
+    /**
+     * Makes {@code position} the current page. When the window of drawn dots has to
+     * follow, the dot is placed right away and every dot needs drawing again; otherwise
+     * the dot is moved as by {@link #moveCurrentDot(int)}.
+     *
+     * @return whether the window of drawn dots moved
+     */
+    public boolean setCurrentPage(int position) {
+        currentPage = position;
+        if (updateFirstVisibleDot()) {
+            currentDotOffset = position * getStep();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Slides the window of drawn dots so that it contains the current page.
+     *
+     * @return whether the window moved
+     */
+    private boolean updateFirstVisibleDot() {
+        int first = firstVisibleDot;
+        if (currentPage < first) {
+            first = currentPage;
+        } else if (currentPage >= first + maxVisibleDots) {
+            first = currentPage - maxVisibleDots + 1;
+        }
+        first = Math.max(0, Math.min(first, pagesCount - getVisibleDotsCount()));
+        if (first == firstVisibleDot) {
+            return false;
+        }
+        firstVisibleDot = first;
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package pageview;
+
+/**
+ * Moves the {@link ViewFlow} scroll offset towards a target. ViewFlow steps it once per
+ * drawn frame with the current animation time, so implementations hold no clock and can
+ * be stepped headlessly. The target may change while the animation runs; the offset then
+ * carries on from where it is, with its current velocity.
+ */
+public interface PageAnimator {
+
+    /**
+     * @param velocity pixels per second, positive towards larger offsets
+     */
+    public void start(int offset, float velocity, int target, long timeMillis);
+
+    /**
+     * Moves the target of the running animation without resetting its motion.
+     */
+    public void retarget(int target);
+
+    /**
+     * Advances the animation to {@code timeMillis}.
+     *
+     * @return whether the animation is still running
+     */
+    public boolean step(long timeMillis);
+
+    public int getOffset();
+
+    public int getTarget();
+
+    public boolean isRunning();
+
+    /**
+     * Stops the animation where it is.
+     */
+    public void stop();
+}
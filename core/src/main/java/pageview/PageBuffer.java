@@ -0,0 +1,186 @@
+package pageview;
+
+/**
+ * The pages a {@link ViewFlow} keeps loaded around its current page, and the rules for
+ * moving them: window shifts that only bind the positions entering the window, and
+ * stable-id rebinds that keep the pages whose item is still in range. Binding, recycling
+ * and the position range are left to the {@link Host}.
+ * <p>
+ * Positions are buffer positions; in circular mode they keep counting past both ends of
+ * the adapter and the host wraps them.
+ */
+class PageBuffer<V> {
+
+    public static final int INVALID_POSITION = -1;
+
+    /**
+     * How far {@link #findItemPosition(long, int)} looks on each side of its hint.
+     */
+    static final int MAX_ITEM_DISTANCE = 128;
+
+    public static interface Host<V> {
+        int getMinPosition();
+
+        int getMaxPosition();
+
+        int getBufferBefore();
+
+        int getBufferAfter();
+
+        int getItemCount();
+
+        int getItemViewType(int position);
+
+        long getItemId(int position);
+
+        int getViewType(V page);
+
+        long getItemId(V page);
+
+        /**
+         * Binds a page for {@code position}, added before the loaded pages unless
+         * {@code addToEnd}.
+         */
+        V bind(int position, boolean addToEnd);
+
+        /**
+         * Takes back a page that left the buffer.
+         */
+        void recycle(V page);
+
+        /**
+         * Adds a page kept by {@link PageBuffer#rebindChangedItems(int)} after the
+         * loaded pages, at its possibly new {@code position}.
+         */
+        void keep(V page, int position);
+    }
+
+    private final Host<V> host;
+    private final PageWindow<V> window;
+    private final Object[] scratchPages;
+    private final long[] scratchIds;
+    private final Object[] keptPages;
+
+    PageBuffer(int capacity, Host<V> host) {
+        this.host = host;
+        window = new PageWindow<V>(capacity);
+        scratchPages = new Object[capacity];
+        scratchIds = new long[capacity];
+        keptPages = new Object[capacity];
+    }
+
+    public PageWindow<V> getWindow() {
+        return window;
+    }
+
+    /**
+     * Recycles every loaded page and anchors the empty window at {@code firstPosition}.
+     */
+    public void clear(int firstPosition) {
+        while (!window.isEmpty()) {
+            host.recycle(window.removeFirst());
+        }
+        window.reset(firstPosition);
+    }
+
+    /**
+     * Moves the window so that it covers {@code position} and its side buffers.
+     * Pages that stay in range keep their bindings; only the positions entering the
+     * window are bound, reusing the pages of the positions that left it.
+     */
+    public void reconcile(int position) {
+        final int first = Math.max(host.getMinPosition(), position - host.getBufferBefore());
+        final int last = Math.min(host.getMaxPosition(), position + host.getBufferAfter());
+
+        if (window.isEmpty() || window.getLastPosition() < first
+                || window.getFirstPosition() > last) {
+            clear(first);
+        } else {
+            while (window.getFirstPosition() < first) {
+                host.recycle(window.removeFirst());
+            }
+            while (window.getLastPosition() > last) {
+                host.recycle(window.removeLast());
+            }
+        }
+
+        while (!window.isEmpty() && window.getFirstPosition() > first) {
+            window.addFirst(host.bind(window.getFirstPosition() - 1, false));
+        }
+        while (window.getLastPosition() < last) {
+            window.addLast(host.bind(window.getLastPosition() + 1, true));
+        }
+    }
+
+    /**
+     * Rebuilds the window around {@code position} after a data change of an adapter
+     * with stable ids. A position whose item is still loaded gets its old page back
+     * without a bind; everything else is recycled and bound again.
+     */
+    @SuppressWarnings("unchecked")
+    public void rebindChangedItems(int position) {
+        int buffered = 0;
+        while (!window.isEmpty()) {
+            V page = window.removeFirst();
+            scratchPages[buffered] = page;
+            scratchIds[buffered++] = host.getItemId(page);
+        }
+
+        final int first = Math.max(host.getMinPosition(), position - host.getBufferBefore());
+        final int last = Math.min(host.getMaxPosition(), position + host.getBufferAfter());
+        for (int p = first; p <= last; p++) {
+            final long itemId = host.getItemId(p);
+            final int viewType = host.getItemViewType(p);
+            for (int i = 0; i < buffered; i++) {
+                V page = (V) scratchPages[i];
+                if (page != null && scratchIds[i] == itemId
+                        && host.getViewType(page) == viewType) {
+                    keptPages[p - first] = page;
+                    scratchPages[i] = null;
+                    break;
+                }
+            }
+        }
+
+        for (int i = 0; i < buffered; i++) {
+            if (scratchPages[i] != null) {
+                host.recycle((V) scratchPages[i]);
+                scratchPages[i] = null;
+            }
+        }
+
+        window.reset(first);
+        for (int p = first; p <= last; p++) {
+            V page = (V) keptPages[p - first];
+            if (page != null) {
+                keptPages[p - first] = null;
+                host.keep(page, p);
+                window.addLast(page);
+            } else {
+                window.addLast(host.bind(p, true));
+            }
+        }
+    }
+
+    /**
+     * Looks for the item with the given stable id, starting at {@code hint} and
+     * working outwards, so items that moved by a few positions are found quickly.
+     * The search stops {@link #MAX_ITEM_DISTANCE} positions away on each side, so a
+     * removed item costs a bounded number of {@code getItemId} calls however large
+     * the adapter is; callers fall back to the clamped hint then.
+     */
+    public int findItemPosition(long itemId, int hint) {
+        final int count = host.getItemCount();
+        hint = Math.max(0, Math.min(hint, count - 1));
+        final int distance = Math.min(MAX_ITEM_DISTANCE, Math.max(hint, count - 1 - hint));
+        for (int d = 0; d <= distance; d++) {
+            if (hint + d < count && host.getItemId(hint + d) == itemId) {
+                return hint + d;
+            }
+            if (d > 0 && hint - d >= 0 && host.getItemId(hint - d) == itemId) {
+                return hint - d;
+            }
+        }
+        return INVALID_POSITION;
+    }
+}
@@ -0,0 +1,138 @@
+package pageview;
+
+/**
+ * Horizontal drag state machine behind {@link ViewFlow}'s touch handling. It is fed
+ * primitive samples of the active pointer, so it can be driven without MotionEvents.
+ * Moves are only accumulated; {@link #flush()} applies them as a single scroll, which
+ * ViewFlow does once per event batch after replaying the historical samples.
+ */
+class PageGestureEngine {
+    static final int INVALID_POINTER = -1;
+
+    static interface Host {
+        int getScrollX();
+
+        /**
+         * Lowest scroll offset a snap can reach, the first page the flow can show.
+         */
+        int getMinScrollX();
+
+        /**
+         * Highest scroll offset a snap can reach, the last page the flow can show.
+         */
+        int getMaxScrollX();
+
+        void scrollBy(int dx);
+
+        /**
+         * Called when a drag ends, {@code velocityX} in pixels per second.
+         */
+        void onRelease(float velocityX);
+    }
+
+    private final Host host;
+    private final int touchSlop;
+    private boolean dragging;
+    private int activePointerId = INVALID_POINTER;
+    private float lastMotionX;
+    private float downX;
+    private float pendingDelta;
+
+    PageGestureEngine(Host host, int touchSlop) {
+        this.host = host;
+        this.touchSlop = touchSlop;
+    }
+
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    public int getActivePointerId() {
+        return activePointerId;
+    }
+
+    /**
+     * @param animating whether a snap was running; catching it starts a drag right away
+     */
+    public void down(int pointerId, float x, boolean animating) {
+        activePointerId = pointerId;
+        lastMotionX = x;
+        downX = x;
+        pendingDelta = 0;
+        dragging = animating;
+    }
+
+    /**
+     * A new finger takes over the drag from where it touches down.
+     */
+    public void pointerDown(int pointerId, float x) {
+        activePointerId = pointerId;
+        lastMotionX = x;
+        downX = x;
+    }
+
+    /**
+     * The active finger was lifted while {@code newPointerId} stays down.
+     */
+    public void activePointerUp(int newPointerId, float newX) {
+        activePointerId = newPointerId;
+        lastMotionX = newX;
+        downX = newX;
+    }
+
+    public void move(float x) {
+        if (activePointerId == INVALID_POINTER) {
+            return;
+        }
+        if (!dragging && Math.abs(x - downX) > touchSlop) {
+            dragging = true;
+        }
+        if (dragging) {
+            pendingDelta += lastMotionX - x;
+            lastMotionX = x;
+        }
+    }
+
+    /**
+     * Applies the accumulated movement as one scroll, clamped to the scrollable range.
+     * An offset already outside the range, as left by an overshooting snap, is never
+     * pushed further out nor pulled back against the finger.
+     */
+    public void flush() {
+        int deltaX = (int) pendingDelta;
+        pendingDelta -= deltaX;
+        if (deltaX == 0) {
+            return;
+        }
+        long scrollX = host.getScrollX();
+        if (deltaX < 0) {
+            deltaX = (int) Math.max(Math.min(0, host.getMinScrollX() - scrollX), deltaX);
+        } else {
+            deltaX = (int) Math.min(Math.max(0, host.getMaxScrollX() - scrollX), deltaX);
+        }
+        if (deltaX != 0) {
+            host.scrollBy(deltaX);
+        }
+    }
+
+    public void up(float velocityX) {
+        if (dragging) {
+            flush();
+            host.onRelease(velocityX);
+        }
+        reset();
+    }
+
+    public void cancel() {
+        if (dragging) {
+            host.onRelease(0);
+        }
+        reset();
+    }
+
+    private void reset() {
+        dragging = false;
+        activePointerId = INVALID_POINTER;
+        pendingDelta = 0;
+    }
+}
@@ -0,0 +1,149 @@
+package pageview;
+
+/**
+ * Fixed-capacity ring buffer holding the pages loaded by a {@link ViewFlow}.
+ * Slot {@code i} always holds the page of adapter position {@code getFirstPosition() + i},
+ * so indexed access, position lookup and shifting at either end are O(1) and never allocate.
+ */
+class PageWindow<V> {
+    private final Object[] items;
+    private int head;
+    private int size;
+    private int firstPosition;
+
+    PageWindow(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        items = new Object[capacity];
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == items.length;
+    }
+
+    /**
+     * Adapter position of slot 0. For an empty window this is the position the next
+     * {@link #addLast(Object)} will be bound to.
+     */
+    public int getFirstPosition() {
+        return firstPosition;
+    }
+
+    public int getLastPosition() {
+        return firstPosition + size - 1;
+    }
+
+    public boolean containsPosition(int position) {
+        return position >= firstPosition && position < firstPosition + size;
+    }
+
+    public int indexOfPosition(int position) {
+        return containsPosition(position) ? position - firstPosition : -1;
+    }
+
+    public int positionAt(int index) {
+        checkIndex(index);
+        return firstPosition + index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+        checkIndex(index);
+        return (V) items[slot(index)];
+    }
+
+    /**
+     * Replaces the item in slot {@code index}, keeping its position.
+     */
+    public void set(int index, V item) {
+        checkIndex(index);
+        items[slot(index)] = item;
+    }
+
+    public V getAtPosition(int position) {
+        return containsPosition(position) ? get(position - firstPosition) : null;
+    }
+
+    public V getFirst() {
+        return get(0);
+    }
+
+    public V getLast() {
+        return get(size - 1);
+    }
+
+    public void addLast(V item) {
+        checkNotFull();
+        items[slot(size)] = item;
+        size++;
+    }
+
+    public void addFirst(V item) {
+        checkNotFull();
+        head = (head == 0 ? items.length : head) - 1;
+        items[head] = item;
+        size++;
+        firstPosition--;
+    }
+
+    public V removeFirst() {
+        V item = getFirst();
+        items[head] = null;
+        head = slot(1);
+        size--;
+        firstPosition++;
+        return item;
+    }
+
+    public V removeLast() {
+        V item = getLast();
+        items[slot(size - 1)] = null;
+        size--;
+        return item;
+    }
+
+    /**
+     * Empties the window and anchors it at {@code firstPosition}.
+     */
+    public void reset(int firstPosition) {
+        clear();
+        this.firstPosition = firstPosition;
+    }
+
+    public void clear() {
+        while (size > 0) {
+            removeLast();
+        }
+        head = 0;
+    }
+
+    private int slot(int index) {
+        int slot = head + index;
+        return slot < items.length ? slot : slot - items.length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+
+    private void checkNotFull() {
+        if (size == items.length) {
+            throw new IllegalStateException("Page window is full: " + size);
+        }
+    }
+}
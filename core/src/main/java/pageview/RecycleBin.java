@@ -0,0 +1,138 @@
+package pageview;
+
+/**
+ * Scrap heap of page views that left the {@link ViewFlow} buffer, keyed by the
+ * adapter view type so every {@code getView} call gets a convert view of the right layout.
+ * Each view type keeps at most its configured capacity of views; anything beyond that
+ * is handed to the {@link OnDiscardListener}.
+ */
+class RecycleBin<V> {
+
+    public static interface OnDiscardListener<V> {
+        void onDiscard(V view);
+    }
+
+    private final OnDiscardListener<V> discardListener;
+    private Object[][] scrapViews = new Object[1][];
+    private int[] scrapCounts = new int[1];
+    private int[] capacities = new int[1];
+    private int defaultCapacity;
+
+    RecycleBin(int defaultCapacity, OnDiscardListener<V> discardListener) {
+        this.defaultCapacity = defaultCapacity;
+        this.discardListener = discardListener;
+        capacities[0] = defaultCapacity;
+        scrapViews[0] = new Object[defaultCapacity];
+    }
+
+    /**
+     * Discards every scrap view and prepares one heap per view type.
+     */
+    public void setViewTypeCount(int viewTypeCount) {
+        if (viewTypeCount < 1) {
+            throw new IllegalArgumentException("Can't have a viewTypeCount < 1");
+        }
+        clear();
+        if (viewTypeCount == scrapViews.length) {
+            return;
+        }
+        Object[][] views = new Object[viewTypeCount][];
+        int[] counts = new int[viewTypeCount];
+        int[] caps = new int[viewTypeCount];
+        for (int type = 0; type < viewTypeCount; type++) {
+            caps[type] = type < capacities.length ? capacities[type] : defaultCapacity;
+            views[type] = new Object[caps[type]];
+        }
+        scrapViews = views;
+        scrapCounts = counts;
+        capacities = caps;
+    }
+
+    public int getViewTypeCount() {
+        return scrapViews.length;
+    }
+
+    /**
+     * Sets the capacity of every view type heap.
+     */
+    public void setCapacity(int capacity) {
+        defaultCapacity = capacity;
+        for (int type = 0; type < scrapViews.length; type++) {
+            setCapacity(type, capacity);
+        }
+    }
+
+    public void setCapacity(int viewType, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        if (!isValidType(viewType)) {
+            return;
+        }
+        Object[] old = scrapViews[viewType];
+        Object[] views = new Object[capacity];
+        int kept = Math.min(scrapCounts[viewType], capacity);
+        System.arraycopy(old, 0, views, 0, kept);
+        for (int i = kept; i < scrapCounts[viewType]; i++) {
+            discard(old[i]);
+        }
+        scrapViews[viewType] = views;
+        scrapCounts[viewType] = kept;
+        capacities[viewType] = capacity;
+    }
+
+    public int getCapacity(int viewType) {
+        return isValidType(viewType) ? capacities[viewType] : 0;
+    }
+
+    public int getScrapCount(int viewType) {
+        return isValidType(viewType) ? scrapCounts[viewType] : 0;
+    }
+
+    /**
+     * Puts a view on the heap of its type. Views of an unknown type, or of a type
+     * whose heap is full, are discarded right away.
+     */
+    public void addScrapView(V view, int viewType) {
+        if (!isValidType(viewType) || scrapCounts[viewType] == capacities[viewType]) {
+            discardListener.onDiscard(view);
+            return;
+        }
+        scrapViews[viewType][scrapCounts[viewType]++] = view;
+    }
+
+    /**
+     * @return a view of the given type, or {@code null} if its heap is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V getScrapView(int viewType) {
+        if (!isValidType(viewType) || scrapCounts[viewType] == 0) {
+            return null;
+        }
+        Object[] views = scrapViews[viewType];
+        int last = --scrapCounts[viewType];
+        V view = (V) views[last];
+        views[last] = null;
+        return view;
+    }
+
+    public void clear() {
+        for (int type = 0; type < scrapViews.length; type++) {
+            Object[] views = scrapViews[type];
+            for (int i = 0; i < scrapCounts[type]; i++) {
+                discard(views[i]);
+                views[i] = null;
+            }
+            scrapCounts[type] = 0;
+        }
+    }
+
+    private boolean isValidType(int viewType) {
+        return viewType >= 0 && viewType < scrapViews.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void discard(Object view) {
+        discardListener.onDiscard((V) view);
+    }
+}
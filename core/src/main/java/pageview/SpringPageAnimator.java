@@ -0,0 +1,114 @@
+package pageview;
+
+/**
+ * Default {@link PageAnimator}: a damped spring pulling the offset to the target, seeded
+ * with the release velocity of the fling. The spring is integrated in fixed steps, so the
+ * same sequence of frame times always gives the same offsets. Unless overshoot is allowed,
+ * the animation ends as soon as the offset reaches the target.
+ */
+public class SpringPageAnimator implements PageAnimator {
+    private static final float DEFAULT_STIFFNESS = 200f;
+    private static final float DEFAULT_DAMPING_RATIO = 1f;
+    private static final int STEP_MILLIS = 4;
+    private static final long MAX_FRAME_MILLIS = 100;
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 20f;
+
+    private float stiffness = DEFAULT_STIFFNESS;
+    private float damping;
+    private boolean allowOvershoot;
+    private float position;
+    private float velocity;
+    private int target;
+    private long lastTime;
+    private boolean running;
+
+    public SpringPageAnimator() {
+        setDampingRatio(DEFAULT_DAMPING_RATIO);
+    }
+
+    /**
+     * @param stiffness pull of the spring per pixel of distance, higher settles faster
+     */
+    public void setStiffness(float stiffness) {
+        float ratio = damping / (2f * (float) Math.sqrt(this.stiffness));
+        this.stiffness = Math.max(1f, stiffness);
+        setDampingRatio(ratio);
+    }
+
+    /**
+     * @param ratio 1 for critical damping, less lets the spring oscillate
+     */
+    public void setDampingRatio(float ratio) {
+        damping = 2f * Math.max(0f, ratio) * (float) Math.sqrt(stiffness);
+    }
+
+    public void setAllowOvershoot(boolean allowOvershoot) {
+        this.allowOvershoot = allowOvershoot;
+    }
+
+    @Override
+    public void start(int offset, float velocity, int target, long timeMillis) {
+        position = offset;
+        this.velocity = velocity;
+        this.target = target;
+        lastTime = timeMillis;
+        running = offset != target || velocity != 0;
+    }
+
+    @Override
+    public void retarget(int target) {
+        this.target = target;
+    }
+
+    @Override
+    public boolean step(long timeMillis) {
+        if (!running) {
+            return false;
+        }
+        // A stalled frame moves the spring by at most MAX_FRAME_MILLIS
+        long elapsed = Math.min(timeMillis - lastTime, MAX_FRAME_MILLIS);
+        lastTime = timeMillis;
+        for (; elapsed > 0 && running; elapsed -= STEP_MILLIS) {
+            float dt = Math.min(elapsed, STEP_MILLIS) / 1000f;
+            float distance = target - position;
+            velocity += (stiffness * distance - damping * velocity) * dt;
+            position += velocity * dt;
+
+            float remaining = target - position;
+            if (!allowOvershoot && remaining != 0 && (remaining > 0) != (distance > 0)) {
+                finish();
+            } else if (Math.abs(remaining) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+                finish();
+            }
+        }
+        return running;
+    }
+
+    private void finish() {
+        position = target;
+        velocity = 0;
+        running = false;
+    }
+
+    @Override
+    public int getOffset() {
+        return Math.round(position);
+    }
+
+    @Override
+    public int getTarget() {
+        return target;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void stop() {
+        velocity = 0;
+        running = false;
+    }
+}
@@ -0,0 +1,101 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveBufferPolicyTest {
+    // ComponentCallbacks2 levels
+    private static final int RUNNING_MODERATE = 5;
+    private static final int RUNNING_LOW = 10;
+    private static final int RUNNING_CRITICAL = 15;
+    private static final int UI_HIDDEN = 20;
+    private static final int BACKGROUND = 40;
+    private static final int COMPLETE = 80;
+
+    private AdaptiveBufferPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new AdaptiveBufferPolicy(1, 3, 5);
+    }
+
+    @Test
+    public void splitsTheBudgetEvenlyAtRest() {
+        assertEquals(3, policy.getBufferBefore());
+        assertEquals(3, policy.getBufferAfter());
+        assertEquals(11, policy.getMaxBufferSize());
+    }
+
+    @Test
+    public void leadingSideGrowsInTheDirectionOfTravel() {
+        policy.onSwitched(1, 500);
+        assertEquals(2, policy.getBufferBefore());
+        assertEquals(4, policy.getBufferAfter());
+
+        policy.onSwitched(-1, 500);
+        assertEquals(4, policy.getBufferBefore());
+        assertEquals(2, policy.getBufferAfter());
+    }
+
+    @Test
+    public void fastFlingsGiveTheSpareBudgetToTheLeadingSide() {
+        policy.onSwitched(1, 4000);
+
+        assertEquals(1, policy.getBufferBefore());
+        assertEquals(5, policy.getBufferAfter());
+    }
+
+    @Test
+    public void runningLevelsScaleTheBudgetDown() {
+        policy.onTrimMemory(RUNNING_MODERATE);
+        assertEquals(4, total());
+
+        policy.onTrimMemory(RUNNING_LOW);
+        assertEquals(3, total());
+
+        policy.onTrimMemory(RUNNING_CRITICAL);
+        assertEquals(2, total());
+        assertEquals(1, policy.getBufferBefore());
+    }
+
+    @Test
+    public void milderLevelDoesNotGrowATrimmedBudget() {
+        policy.onTrimMemory(RUNNING_CRITICAL);
+        policy.onTrimMemory(RUNNING_MODERATE);
+
+        assertEquals(2, total());
+    }
+
+    @Test
+    public void levelsOfAHiddenUiAreIgnored() {
+        policy.onTrimMemory(UI_HIDDEN);
+        policy.onTrimMemory(BACKGROUND);
+        policy.onTrimMemory(COMPLETE);
+
+        assertEquals(6, total());
+    }
+
+    @Test
+    public void switchesRestoreTheBudgetOnePageAtATime() {
+        policy.onLowMemory();
+        assertEquals(2, total());
+
+        for (int i = 1; i <= 4; i++) {
+            policy.onSwitched(1, 0);
+            assertEquals(2 + i, total());
+        }
+        policy.onSwitched(1, 0);
+        assertEquals(6, total());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsASideBufferBelowTheMinimum() {
+        new AdaptiveBufferPolicy(2, 1, 3);
+    }
+
+    private int total() {
+        return policy.getBufferBefore() + policy.getBufferAfter();
+    }
+}
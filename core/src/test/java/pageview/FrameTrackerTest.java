@@ -0,0 +1,222 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FrameTrackerTest {
+    private static final long MS = 1000000L;
+    private static final long INTERVAL = 16 * MS;
+
+    private FakeClock clock;
+    private FrameTracker tracker;
+    private long[] summary;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock();
+        tracker = new FrameTracker(clock, INTERVAL);
+        tracker.setListener(new FrameTracker.Listener() {
+
+            @Override
+            public void onGestureFinished(long[] gestureSummary) {
+                summary = gestureSummary.clone();
+            }
+        });
+    }
+
+    @Test
+    public void nearestRankPercentilesOfTwentyFrames() {
+        tracker.begin();
+        for (int i = 1; i <= 20; i++) {
+            frame(i * MS);
+        }
+        tracker.end();
+
+        assertEquals(20, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertEquals(10 * MS, summary[FrameTracker.SUMMARY_P50_NANOS]);
+        assertEquals(19 * MS, summary[FrameTracker.SUMMARY_P95_NANOS]);
+        assertEquals(20 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+    }
+
+    @Test
+    public void percentilesDoNotDependOnFrameOrder() {
+        tracker.begin();
+        frame(40 * MS);
+        frame(10 * MS);
+        frame(30 * MS);
+        frame(20 * MS);
+        tracker.end();
+
+        assertEquals(20 * MS, summary[FrameTracker.SUMMARY_P50_NANOS]);
+        assertEquals(40 * MS, summary[FrameTracker.SUMMARY_P95_NANOS]);
+        assertEquals(40 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+    }
+
+    @Test
+    public void singleFrameIsEveryPercentile() {
+        tracker.begin();
+        frame(7 * MS);
+        tracker.end();
+
+        assertEquals(7 * MS, summary[FrameTracker.SUMMARY_P50_NANOS]);
+        assertEquals(7 * MS, summary[FrameTracker.SUMMARY_P95_NANOS]);
+    }
+
+    @Test
+    public void countsDroppedFramesByRoundedIntervals() {
+        tracker.begin();
+        frame(16 * MS);
+        frame(20 * MS);
+        frame(25 * MS);
+        frame(50 * MS);
+        tracker.end();
+
+        assertEquals(0 + 0 + 1 + 2, summary[FrameTracker.SUMMARY_DROPPED_FRAMES]);
+    }
+
+    @Test
+    public void idleTimeBetweenFramesIsNotCounted() {
+        tracker.begin();
+        frame(5 * MS);
+        clock.now += 500 * MS;
+        frame(5 * MS);
+        tracker.end();
+
+        assertEquals(5 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+        assertEquals(510 * MS, summary[FrameTracker.SUMMARY_DURATION_NANOS]);
+    }
+
+    @Test
+    public void slowDrawCountsInFull() {
+        tracker.begin();
+        tracker.onFrameRequested();
+        clock.now += 1 * MS;
+        tracker.onFrameDrawStarted();
+        clock.now += 50 * MS;
+        tracker.onFrameDrawn();
+        tracker.end();
+
+        assertEquals(51 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+        assertEquals(2, summary[FrameTracker.SUMMARY_DROPPED_FRAMES]);
+    }
+
+    @Test
+    public void requestDuringADrawStartsTheNextFrameWhenItEnds() {
+        tracker.begin();
+        tracker.onFrameRequested();
+        tracker.onFrameDrawStarted();
+        clock.now += 10 * MS;
+        tracker.onFrameRequested();
+        clock.now += 30 * MS;
+        tracker.onFrameDrawn();
+        clock.now += 6 * MS;
+        tracker.onFrameDrawStarted();
+        clock.now += 10 * MS;
+        tracker.onFrameDrawn();
+        tracker.end();
+
+        assertEquals(2, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertEquals(40 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+        assertEquals(16 * MS, summary[FrameTracker.SUMMARY_P50_NANOS]);
+    }
+
+    @Test
+    public void drawWithoutARequestIsNotAFrame() {
+        tracker.begin();
+        tracker.onFrameDrawStarted();
+        clock.now += 30 * MS;
+        tracker.onFrameDrawn();
+        tracker.end();
+
+        assertEquals(0, summary[FrameTracker.SUMMARY_FRAMES]);
+    }
+
+    @Test
+    public void repeatedRequestsStartOneFrame() {
+        tracker.begin();
+        tracker.onFrameRequested();
+        clock.now += 4 * MS;
+        tracker.onFrameRequested();
+        clock.now += 4 * MS;
+        tracker.onFrameDrawStarted();
+        tracker.onFrameDrawn();
+        tracker.end();
+
+        assertEquals(1, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertEquals(8 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+    }
+
+    @Test
+    public void sumsBindTimeWithinTheGesture() {
+        tracker.onPageBound(3 * MS);
+        tracker.begin();
+        tracker.onPageBound(2 * MS);
+        tracker.onPageBound(1 * MS);
+        tracker.end();
+
+        assertEquals(3 * MS, summary[FrameTracker.SUMMARY_BIND_NANOS]);
+    }
+
+    @Test
+    public void beginDuringAGestureContinuesIt() {
+        tracker.begin();
+        frame(10 * MS);
+        tracker.begin();
+        frame(10 * MS);
+        tracker.end();
+
+        assertEquals(2, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertFalse(tracker.isTracking());
+    }
+
+    @Test
+    public void growsPastTheInitialFrameCapacity() {
+        tracker.begin();
+        for (int i = 0; i < 300; i++) {
+            frame((i % 3 + 1) * MS);
+        }
+        tracker.end();
+
+        assertEquals(300, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertEquals(2 * MS, summary[FrameTracker.SUMMARY_P50_NANOS]);
+        assertEquals(3 * MS, summary[FrameTracker.SUMMARY_MAX_NANOS]);
+    }
+
+    @Test
+    public void emptyGestureReportsZeroes() {
+        tracker.begin();
+        assertTrue(tracker.isTracking());
+        tracker.end();
+
+        assertEquals(0, summary[FrameTracker.SUMMARY_FRAMES]);
+        assertEquals(0, summary[FrameTracker.SUMMARY_P95_NANOS]);
+    }
+
+    @Test
+    public void endWithoutBeginReportsNothing() {
+        tracker.end();
+
+        assertNull(summary);
+    }
+
+    private void frame(long nanos) {
+        tracker.onFrameRequested();
+        tracker.onFrameDrawStarted();
+        clock.now += nanos;
+        tracker.onFrameDrawn();
+    }
+
+    static class FakeClock implements FrameTracker.Clock {
+        long now = 1000 * MS;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+    }
+}
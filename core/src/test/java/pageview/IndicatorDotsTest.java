@@ -0,0 +1,141 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndicatorDotsTest {
+    private static final int DOT_WIDTH = 10;
+    private static final int MARGIN = 3;
+    private static final int STEP = DOT_WIDTH + 2 * MARGIN;
+    private static final int PAGE_WIDTH = 480;
+
+    private IndicatorDots dots;
+
+    @Before
+    public void setUp() {
+        dots = new IndicatorDots(5);
+        dots.setDotSize(DOT_WIDTH, MARGIN);
+        dots.setPageCount(20);
+    }
+
+    @Test
+    public void scrollOffsetFollowsThePagesProportionally() {
+        assertEquals(0, dots.getScrollOffset(0, PAGE_WIDTH));
+        assertEquals(STEP / 2, dots.getScrollOffset(PAGE_WIDTH / 2, PAGE_WIDTH));
+        assertEquals(3 * STEP, dots.getScrollOffset(3 * PAGE_WIDTH, PAGE_WIDTH));
+    }
+
+    @Test
+    public void scrollOffsetStaysWithinTheDrawnDots() {
+        assertEquals(0, dots.getScrollOffset(-PAGE_WIDTH, PAGE_WIDTH));
+        assertEquals(4 * STEP, dots.getScrollOffset(9 * PAGE_WIDTH, PAGE_WIDTH));
+    }
+
+    @Test
+    public void scrollOffsetDoesNotOverflowFarIntoALongFlow() {
+        dots.setPageCount(Integer.MAX_VALUE / PAGE_WIDTH);
+        dots.setMaxVisibleDots(Integer.MAX_VALUE);
+
+        assertEquals(3000000 * STEP, dots.getScrollOffset(3000000 * PAGE_WIDTH, PAGE_WIDTH));
+    }
+
+    @Test
+    public void noWidthOrNoPagesKeepsTheDot() {
+        dots.moveCurrentDot(2 * STEP);
+
+        assertEquals(2 * STEP, dots.getScrollOffset(5 * PAGE_WIDTH, 0));
+        dots.setPageCount(0);
+        assertEquals(0, dots.getScrollOffset(5 * PAGE_WIDTH, PAGE_WIDTH));
+    }
+
+    @Test
+    public void dirtySpanCoversTheOldAndNewDot() {
+        assertTrue(dots.moveCurrentDot(STEP + 4));
+
+        assertEquals(MARGIN, dots.getDirtyStart());
+        assertEquals(STEP + 4 + MARGIN + DOT_WIDTH, dots.getDirtyEnd());
+
+        assertTrue(dots.moveCurrentDot(2));
+        assertEquals(2 + MARGIN, dots.getDirtyStart());
+        assertEquals(STEP + 4 + MARGIN + DOT_WIDTH, dots.getDirtyEnd());
+    }
+
+    @Test
+    public void unchangedOffsetDoesNotDirtyAnything() {
+        dots.moveCurrentDot(7);
+
+        assertFalse(dots.moveCurrentDot(7));
+    }
+
+    @Test
+    public void switchPastTheDrawnDotsSlidesTheWindow() {
+        assertFalse(dots.setCurrentPage(4));
+        assertTrue(dots.setCurrentPage(6));
+
+        assertEquals(2, dots.getFirstVisibleDot());
+        assertEquals(6 * STEP, dots.getCurrentDotOffset());
+        assertEquals(4 * STEP + MARGIN, dots.getDotLeft(dots.getCurrentDotOffset()));
+        assertEquals(2 * STEP, dots.getScrollOffset(0, PAGE_WIDTH));
+    }
+
+    @Test
+    public void fewerPagesThanDotsDrawEveryPage() {
+        dots.setPageCount(3);
+
+        assertEquals(3, dots.getVisibleDotsCount());
+        assertEquals(2 * STEP, dots.getScrollOffset(10 * PAGE_WIDTH, PAGE_WIDTH));
+    }
+
+    @Test
+    public void scrollFramesDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        final long thread = Thread.currentThread().getId();
+
+        scrollBackAndForth(20000);
+        long start = threads.getThreadAllocatedBytes(thread);
+        long baseline = threads.getThreadAllocatedBytes(thread) - start;
+        start = threads.getThreadAllocatedBytes(thread);
+        int moves = scrollBackAndForth(20000);
+        long allocated = threads.getThreadAllocatedBytes(thread) - start - baseline;
+
+        assertTrue(moves > 0);
+        assertEquals(0, allocated);
+    }
+
+    /**
+     * Drags across every page and back in uneven steps, switching at each page the
+     * way a flow does, and returns the number of dot moves.
+     */
+    private int scrollBackAndForth(int frames) {
+        int moves = 0;
+        int scrollX = 0;
+        int delta = 37;
+        final int maxScrollX = (dots.getPageCount() - 1) * PAGE_WIDTH;
+        for (int i = 0; i < frames; i++) {
+            scrollX += delta;
+            if (scrollX < 0 || scrollX > maxScrollX) {
+                delta = -delta;
+                scrollX += 2 * delta;
+            }
+            if (dots.moveCurrentDot(dots.getScrollOffset(scrollX, PAGE_WIDTH))) {
+                moves += dots.getDirtyEnd() > dots.getDirtyStart() ? 1 : 0;
+            }
+            if (scrollX % PAGE_WIDTH < Math.abs(delta)
+                    && !dots.setCurrentPage(scrollX / PAGE_WIDTH)) {
+                dots.moveCurrentDot((scrollX / PAGE_WIDTH) * dots.getStep());
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,295 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Per-operation budgets of {@code getView} calls and inflations, run on the PageBuffer
+ * and RecycleBin that ViewFlow uses. An operation over its budget fails the build.
+ */
+public class PageBufferBudgetTest {
+    private static final int SIDE_BUFFER = 2;
+    private static final int CAPACITY = 2 * SIDE_BUFFER + 1;
+    private static final int COUNT = 1000;
+    private static final int VIEW_TYPE_COUNT = 3;
+
+    private static final int SHIFT_GET_VIEW = 1;
+    private static final int JUMP_GET_VIEW = CAPACITY;
+    private static final int DATA_CHANGE_GET_VIEW = CAPACITY;
+    private static final int STABLE_DATA_CHANGE_GET_VIEW = 1;
+    // An inserted item may have a view type the scrap heap has run out of
+    private static final int STABLE_DATA_CHANGE_INFLATIONS = 1;
+
+    private CountingFlow flow;
+
+    @Before
+    public void setUp() {
+        flow = new CountingFlow();
+        flow.setSelection(COUNT / 2);
+        // Stocks the scrap heap with every view type
+        for (int i = 0; i < CAPACITY; i++) {
+            flow.setSelection(flow.current + 1);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            flow.setSelection(flow.current - 1);
+        }
+    }
+
+    @Test
+    public void shiftsBindOnePageWithoutInflating() {
+        for (int i = 0; i < 3 * CAPACITY; i++) {
+            flow.resetCounts();
+            flow.setSelection(flow.current + 1);
+            assertBudget("shift forward", SHIFT_GET_VIEW, 0);
+        }
+        for (int i = 0; i < 3 * CAPACITY; i++) {
+            flow.resetCounts();
+            flow.setSelection(flow.current - 1);
+            assertBudget("shift back", SHIFT_GET_VIEW, 0);
+        }
+    }
+
+    @Test
+    public void shiftsOntoTheEndsBindNothing() {
+        flow.setSelection(1);
+        flow.resetCounts();
+        flow.setSelection(0);
+        assertBudget("shift onto the first page", 0, 0);
+
+        flow.setSelection(COUNT - 2);
+        flow.resetCounts();
+        flow.setSelection(COUNT - 1);
+        assertBudget("shift onto the last page", 0, 0);
+    }
+
+    @Test
+    public void jumpsRebindTheWindowFromTheScrapHeap() {
+        for (int i = 1; i <= 10; i++) {
+            flow.resetCounts();
+            flow.setSelection((COUNT / 2 + i * 97) % COUNT);
+            assertBudget("jump", JUMP_GET_VIEW, 0);
+        }
+    }
+
+    @Test
+    public void jumpWithinTheWindowKeepsTheOverlap() {
+        flow.resetCounts();
+        flow.setSelection(flow.current + 2);
+        assertBudget("jump by two", 2, 0);
+    }
+
+    @Test
+    public void dataChangeRebindsTheWindowOnce() {
+        flow.stableIds = false;
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("data change", DATA_CHANGE_GET_VIEW, 0);
+    }
+
+    @Test
+    public void stableDataChangeBindsOnlyInsertedItems() {
+        flow.adapter.insert(flow.current - 1);
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("insert before the current page", STABLE_DATA_CHANGE_GET_VIEW,
+                STABLE_DATA_CHANGE_INFLATIONS);
+
+        flow.adapter.insert(flow.current + 1);
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("insert after the current page", STABLE_DATA_CHANGE_GET_VIEW,
+                STABLE_DATA_CHANGE_INFLATIONS);
+
+        flow.adapter.insert(0);
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("insert before the window", 0, 0);
+    }
+
+    @Test
+    public void stableDataChangeBindsOnlyForRemovedItems() {
+        flow.adapter.remove(flow.current + 1);
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("remove after the current page", STABLE_DATA_CHANGE_GET_VIEW, 0);
+
+        final int current = flow.current;
+        flow.adapter.remove(current);
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("remove the current page", STABLE_DATA_CHANGE_GET_VIEW, 0);
+        assertEquals(current, flow.current);
+    }
+
+    @Test
+    public void unchangedStableDataBindsNothing() {
+        flow.resetCounts();
+        flow.dataSetChanged();
+        assertBudget("unchanged data", 0, 0);
+    }
+
+    private void assertBudget(String operation, int getViewBudget, int inflationBudget) {
+        assertTrue(operation + ": " + flow.getViewCalls + " getView calls, budget "
+                + getViewBudget, flow.getViewCalls <= getViewBudget);
+        assertTrue(operation + ": " + flow.inflations + " inflations, budget "
+                + inflationBudget, flow.inflations <= inflationBudget);
+    }
+
+    static class Page {
+        int position;
+        int viewType;
+        long itemId;
+    }
+
+    static class ItemAdapter {
+        long[] ids = new long[COUNT * 2];
+        int count = COUNT;
+        long nextId = COUNT;
+
+        ItemAdapter() {
+            for (int i = 0; i < count; i++) {
+                ids[i] = i;
+            }
+        }
+
+        int getItemViewType(int position) {
+            return (int) (ids[position] % VIEW_TYPE_COUNT);
+        }
+
+        void insert(int position) {
+            System.arraycopy(ids, position, ids, position + 1, count - position);
+            ids[position] = nextId++;
+            count++;
+        }
+
+        void remove(int position) {
+            System.arraycopy(ids, position + 1, ids, position, count - position - 1);
+            count--;
+        }
+    }
+
+    /**
+     * Drives the buffer the way ViewFlow does: switches reconcile the window, data
+     * changes look the current item up by id and rebind, or rebuild without stable ids.
+     */
+    static class CountingFlow implements PageBuffer.Host<Page> {
+        final ItemAdapter adapter = new ItemAdapter();
+        final PageBuffer<Page> buffer = new PageBuffer<Page>(CAPACITY, this);
+        final RecycleBin<Page> recycleBin = new RecycleBin<Page>(CAPACITY,
+                new RecycleBin.OnDiscardListener<Page>() {
+
+                    @Override
+                    public void onDiscard(Page page) {
+                    }
+                });
+        boolean stableIds = true;
+        int current;
+        int getViewCalls;
+        int inflations;
+
+        CountingFlow() {
+            recycleBin.setViewTypeCount(VIEW_TYPE_COUNT);
+        }
+
+        void setSelection(int position) {
+            current = position;
+            buffer.reconcile(position);
+        }
+
+        void dataSetChanged() {
+            Page selected = buffer.getWindow().getAtPosition(current);
+            int position = selected.position;
+            if (stableIds) {
+                int found = buffer.findItemPosition(selected.itemId, position);
+                if (found != PageBuffer.INVALID_POSITION) {
+                    position = found;
+                }
+            }
+            current = Math.max(0, Math.min(position, adapter.count - 1));
+            if (stableIds) {
+                buffer.rebindChangedItems(current);
+            } else {
+                buffer.clear(current);
+                buffer.reconcile(current);
+            }
+        }
+
+        void resetCounts() {
+            getViewCalls = 0;
+            inflations = 0;
+        }
+
+        @Override
+        public int getMinPosition() {
+            return 0;
+        }
+
+        @Override
+        public int getMaxPosition() {
+            return adapter.count - 1;
+        }
+
+        @Override
+        public int getBufferBefore() {
+            return SIDE_BUFFER;
+        }
+
+        @Override
+        public int getBufferAfter() {
+            return SIDE_BUFFER;
+        }
+
+        @Override
+        public int getItemCount() {
+            return adapter.count;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return adapter.getItemViewType(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return adapter.ids[position];
+        }
+
+        @Override
+        public int getViewType(Page page) {
+            return page.viewType;
+        }
+
+        @Override
+        public long getItemId(Page page) {
+            return page.itemId;
+        }
+
+        @Override
+        public Page bind(int position, boolean addToEnd) {
+            final int viewType = getItemViewType(position);
+            Page page = recycleBin.getScrapView(viewType);
+            getViewCalls++;
+            if (page == null) {
+                page = new Page();
+                inflations++;
+            }
+            page.position = position;
+            page.viewType = viewType;
+            page.itemId = getItemId(position);
+            return page;
+        }
+
+        @Override
+        public void recycle(Page page) {
+            recycleBin.addScrapView(page, page.viewType);
+        }
+
+        @Override
+        public void keep(Page page, int position) {
+            page.position = position;
+        }
+    }
+}
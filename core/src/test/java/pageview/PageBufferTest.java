@@ -0,0 +1,227 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageBufferTest {
+    private static final int SIDE_BUFFER = 2;
+    private static final int COUNT = 20;
+
+    private FakeHost host;
+    private PageBuffer<Page> buffer;
+
+    @Before
+    public void setUp() {
+        host = new FakeHost();
+        buffer = new PageBuffer<Page>(2 * SIDE_BUFFER + 1, host);
+    }
+
+    @Test
+    public void shiftBindsOnlyTheEnteringPosition() {
+        buffer.reconcile(5);
+        Page kept = buffer.getWindow().getAtPosition(4);
+        host.bound.clear();
+
+        buffer.reconcile(6);
+
+        assertEquals(1, host.bound.size());
+        assertEquals(8, host.bound.get(0).position);
+        assertEquals(1, host.recycled.size());
+        assertEquals(3, host.recycled.get(0).position);
+        assertSame(kept, buffer.getWindow().getAtPosition(4));
+        assertWindow(4, 8);
+    }
+
+    @Test
+    public void jumpOutOfRangeRebindsTheWholeWindow() {
+        buffer.reconcile(5);
+        host.bound.clear();
+
+        buffer.reconcile(15);
+
+        assertEquals(5, host.recycled.size());
+        assertEquals(5, host.bound.size());
+        assertWindow(13, 17);
+    }
+
+    @Test
+    public void clampsToTheEndsOfTheRange() {
+        buffer.reconcile(0);
+        assertWindow(0, 2);
+
+        buffer.reconcile(COUNT - 1);
+        assertWindow(COUNT - 3, COUNT - 1);
+    }
+
+    @Test
+    public void stableRebindKeepsPagesThatMoved() {
+        buffer.reconcile(5);
+        Page current = buffer.getWindow().getAtPosition(5);
+        host.bound.clear();
+        // An item inserted before the window moves every item one position on
+        host.idOffset = -1;
+
+        buffer.rebindChangedItems(6);
+
+        assertEquals(0, host.bound.size());
+        assertEquals(5, host.kept.size());
+        assertSame(current, buffer.getWindow().getAtPosition(6));
+        assertWindow(4, 8);
+    }
+
+    @Test
+    public void stableRebindBindsOnlyTheItemsThatEntered() {
+        buffer.reconcile(5);
+        host.bound.clear();
+        host.idOffset = -1;
+
+        buffer.rebindChangedItems(5);
+
+        assertEquals(1, host.bound.size());
+        assertEquals(3, host.bound.get(0).position);
+        assertEquals(1, host.recycled.size());
+        assertEquals(7, host.recycled.get(0).itemId);
+        assertWindow(3, 7);
+    }
+
+    @Test
+    public void stableRebindDoesNotKeepAPageOfAnotherViewType() {
+        buffer.reconcile(5);
+        host.bound.clear();
+        host.viewTypeCount = 2;
+
+        buffer.rebindChangedItems(5);
+
+        // Positions 3, 5 and 7 changed their view type
+        assertEquals(3, host.bound.size());
+        assertEquals(3, host.recycled.size());
+    }
+
+    @Test
+    public void findsMovedItemsNearTheHint() {
+        host.idOffset = -3;
+
+        assertEquals(10, buffer.findItemPosition(7, 7));
+        assertEquals(PageBuffer.INVALID_POSITION, buffer.findItemPosition(COUNT, 7));
+    }
+
+    @Test
+    public void itemSearchStopsAtTheMaximumDistance() {
+        host.count = 100000;
+        host.idOffset = -PageBuffer.MAX_ITEM_DISTANCE;
+        final int hint = 50000;
+
+        assertEquals(hint + PageBuffer.MAX_ITEM_DISTANCE, buffer.findItemPosition(hint, hint));
+        host.lookups = 0;
+        // One position further than that is not looked at
+        assertEquals(PageBuffer.INVALID_POSITION, buffer.findItemPosition(hint, hint - 1));
+        assertEquals(2 * PageBuffer.MAX_ITEM_DISTANCE + 1, host.lookups);
+    }
+
+    @Test
+    public void itemSearchClampsTheHint() {
+        host.idOffset = -1;
+
+        assertEquals(COUNT - 1, buffer.findItemPosition(COUNT - 2, COUNT + 5));
+        assertEquals(1, buffer.findItemPosition(0, -3));
+    }
+
+    private void assertWindow(int first, int last) {
+        PageWindow<Page> window = buffer.getWindow();
+        assertEquals(first, window.getFirstPosition());
+        assertEquals(last, window.getLastPosition());
+        for (int p = first; p <= last; p++) {
+            assertEquals(p, window.getAtPosition(p).position);
+            assertEquals(host.getItemId(p), window.getAtPosition(p).itemId);
+        }
+    }
+
+    static class Page {
+        int position;
+        int viewType;
+        long itemId;
+    }
+
+    static class FakeHost implements PageBuffer.Host<Page> {
+        final List<Page> bound = new ArrayList<Page>();
+        final List<Page> recycled = new ArrayList<Page>();
+        final List<Page> kept = new ArrayList<Page>();
+        int count = COUNT;
+        int viewTypeCount = 1;
+        long idOffset;
+        int lookups;
+
+        @Override
+        public int getMinPosition() {
+            return 0;
+        }
+
+        @Override
+        public int getMaxPosition() {
+            return COUNT - 1;
+        }
+
+        @Override
+        public int getBufferBefore() {
+            return SIDE_BUFFER;
+        }
+
+        @Override
+        public int getBufferAfter() {
+            return SIDE_BUFFER;
+        }
+
+        @Override
+        public int getItemCount() {
+            return count;
+        }
+
+        @Override
+        public int getItemViewType(int position) {
+            return position % viewTypeCount;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            lookups++;
+            return position + idOffset;
+        }
+
+        @Override
+        public int getViewType(Page page) {
+            return page.viewType;
+        }
+
+        @Override
+        public long getItemId(Page page) {
+            return page.itemId;
+        }
+
+        @Override
+        public Page bind(int position, boolean addToEnd) {
+            Page page = new Page();
+            page.position = position;
+            page.viewType = getItemViewType(position);
+            page.itemId = getItemId(position);
+            bound.add(page);
+            return page;
+        }
+
+        @Override
+        public void recycle(Page page) {
+            recycled.add(page);
+        }
+
+        @Override
+        public void keep(Page page, int position) {
+            page.position = position;
+            kept.add(page);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageGestureEngineTest {
+    private static final int TOUCH_SLOP = 8;
+    private static final int WIDTH = 100;
+
+    private FakeHost host;
+    private PageGestureEngine engine;
+
+    @Before
+    public void setUp() {
+        host = new FakeHost();
+        host.scrollX = 2 * WIDTH;
+        host.maxScrollX = 4 * WIDTH;
+        engine = new PageGestureEngine(host, TOUCH_SLOP);
+    }
+
+    @Test
+    public void movesWithinTheSlopDoNotDrag() {
+        engine.down(0, 50, false);
+        engine.move(45);
+        engine.flush();
+
+        assertFalse(engine.isDragging());
+        assertEquals(0, host.scrollCalls);
+    }
+
+    @Test
+    public void catchingASnapDragsRightAway() {
+        engine.down(0, 50, true);
+        engine.move(47);
+        engine.flush();
+
+        assertTrue(engine.isDragging());
+        assertEquals(2 * WIDTH + 3, host.scrollX);
+    }
+
+    @Test
+    public void historicalSamplesAreAppliedAsOneScroll() {
+        engine.down(0, 80, false);
+        engine.move(70);
+        engine.flush();
+        host.scrollCalls = 0;
+
+        float[] batch = { 68.5f, 66, 63.5f, 61 };
+        for (int i = 0; i < batch.length; i++) {
+            engine.move(batch[i]);
+        }
+        engine.flush();
+
+        assertEquals(1, host.scrollCalls);
+        assertEquals(2 * WIDTH + 19, host.scrollX);
+    }
+
+    @Test
+    public void fractionalMovesAreCarriedOver() {
+        engine.down(0, 50, true);
+        engine.move(49.6f);
+        engine.flush();
+        assertEquals(0, host.scrollCalls);
+
+        engine.move(49.2f);
+        engine.flush();
+        assertEquals(2 * WIDTH, host.scrollX);
+        engine.move(48.8f);
+        engine.flush();
+        assertEquals(2 * WIDTH + 1, host.scrollX);
+    }
+
+    @Test
+    public void secondPointerTakesOverWithoutAJump() {
+        engine.down(0, 80, true);
+        engine.move(70);
+        engine.flush();
+        assertEquals(2 * WIDTH + 10, host.scrollX);
+
+        engine.pointerDown(1, 20);
+        engine.move(15);
+        engine.flush();
+        assertEquals(1, engine.getActivePointerId());
+        assertEquals(2 * WIDTH + 15, host.scrollX);
+
+        engine.activePointerUp(0, 70);
+        engine.move(60);
+        engine.flush();
+        assertEquals(0, engine.getActivePointerId());
+        assertEquals(2 * WIDTH + 25, host.scrollX);
+    }
+
+    @Test
+    public void upReleasesWithTheVelocityAndFlushesFirst() {
+        engine.down(0, 80, true);
+        engine.move(60);
+        engine.up(-1200);
+
+        assertEquals(2 * WIDTH + 20, host.scrollX);
+        assertEquals(1, host.releases);
+        assertEquals(-1200, host.releaseVelocity, 0);
+        assertFalse(engine.isDragging());
+        assertEquals(PageGestureEngine.INVALID_POINTER, engine.getActivePointerId());
+    }
+
+    @Test
+    public void cancelReleasesWithoutVelocity() {
+        engine.down(0, 80, true);
+        engine.move(60);
+        engine.cancel();
+
+        assertEquals(2 * WIDTH, host.scrollX);
+        assertEquals(1, host.releases);
+        assertEquals(0, host.releaseVelocity, 0);
+    }
+
+    @Test
+    public void tapDoesNotRelease() {
+        engine.down(0, 80, false);
+        engine.up(0);
+
+        assertEquals(0, host.releases);
+    }
+
+    @Test
+    public void movesAfterUpAreIgnored() {
+        engine.down(0, 80, true);
+        engine.up(0);
+        engine.move(10);
+        engine.flush();
+
+        assertEquals(2 * WIDTH, host.scrollX);
+    }
+
+    @Test
+    public void clampsAtBothEndsOfTheRange() {
+        engine.down(0, 50, true);
+        engine.move(50 + 3 * WIDTH);
+        engine.flush();
+        assertEquals(0, host.scrollX);
+
+        engine.move(50 - 2 * WIDTH);
+        engine.flush();
+        assertEquals(4 * WIDTH, host.scrollX);
+    }
+
+    @Test
+    public void rangeMayExtendPastTheBoundPages() {
+        host.minScrollX = -3 * WIDTH;
+        engine.down(0, 50, true);
+        engine.move(50 + 6 * WIDTH);
+        engine.flush();
+
+        assertEquals(-3 * WIDTH, host.scrollX);
+    }
+
+    @Test
+    public void offsetPastTheEndIsNotPulledBack() {
+        host.scrollX = 9 * WIDTH;
+        host.maxScrollX = 6 * WIDTH;
+        engine.down(0, 50, true);
+        engine.move(45);
+        engine.flush();
+
+        assertEquals(9 * WIDTH, host.scrollX);
+        assertEquals(0, host.scrollCalls);
+
+        engine.move(55);
+        engine.flush();
+        assertEquals(9 * WIDTH - 10, host.scrollX);
+    }
+
+    @Test
+    public void offsetBeforeTheStartIsNotPulledForward() {
+        host.scrollX = -WIDTH;
+        engine.down(0, 50, true);
+        engine.move(55);
+        engine.flush();
+
+        assertEquals(-WIDTH, host.scrollX);
+    }
+
+    @Test
+    public void unboundedCircularRangeDoesNotOverflow() {
+        host.minScrollX = Integer.MIN_VALUE;
+        host.maxScrollX = Integer.MAX_VALUE;
+        engine.down(0, 50, true);
+        engine.move(30);
+        engine.flush();
+        assertEquals(2 * WIDTH + 20, host.scrollX);
+
+        engine.move(70);
+        engine.flush();
+        assertEquals(2 * WIDTH - 20, host.scrollX);
+    }
+
+    static class FakeHost implements PageGestureEngine.Host {
+        int scrollX;
+        int minScrollX;
+        int maxScrollX;
+        int scrollCalls;
+        int releases;
+        float releaseVelocity;
+
+        @Override
+        public int getScrollX() {
+            return scrollX;
+        }
+
+        @Override
+        public int getMinScrollX() {
+            return minScrollX;
+        }
+
+        @Override
+        public int getMaxScrollX() {
+            return maxScrollX;
+        }
+
+        @Override
+        public void scrollBy(int dx) {
+            scrollX += dx;
+            scrollCalls++;
+        }
+
+        @Override
+        public void onRelease(float velocityX) {
+            releases++;
+            releaseVelocity = velocityX;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class PageWindowTest {
+    private static final int SIDE_BUFFER = 2;
+    private static final int COUNT = 10;
+
+    @Test
+    public void fillsOnlyOneSideAtTheFirstPosition() {
+        PageWindow<String> window = new PageWindow<String>(2 * SIDE_BUFFER + 1);
+        moveTo(window, 0);
+
+        assertEquals(0, window.getFirstPosition());
+        assertEquals(SIDE_BUFFER, window.getLastPosition());
+        assertEquals(SIDE_BUFFER + 1, window.size());
+        assertFalse(window.isFull());
+        assertContents(window);
+    }
+
+    @Test
+    public void shiftsForwardUpToTheLastPosition() {
+        PageWindow<String> window = new PageWindow<String>(2 * SIDE_BUFFER + 1);
+        moveTo(window, 0);
+        for (int position = 1; position < COUNT; position++) {
+            moveTo(window, position);
+            assertEquals(Math.max(0, position - SIDE_BUFFER), window.getFirstPosition());
+            assertEquals(Math.min(COUNT - 1, position + SIDE_BUFFER), window.getLastPosition());
+            assertContents(window);
+        }
+        assertEquals(COUNT - 1 - SIDE_BUFFER, window.getFirstPosition());
+        assertEquals(SIDE_BUFFER + 1, window.size());
+    }
+
+    @Test
+    public void shiftsBackwardDownToTheFirstPosition() {
+        PageWindow<String> window = new PageWindow<String>(2 * SIDE_BUFFER + 1);
+        window.reset(COUNT - 1);
+        moveTo(window, COUNT - 1);
+        for (int position = COUNT - 2; position >= 0; position--) {
+            moveTo(window, position);
+            assertEquals(Math.max(0, position - SIDE_BUFFER), window.getFirstPosition());
+            assertEquals(Math.min(COUNT - 1, position + SIDE_BUFFER), window.getLastPosition());
+            assertContents(window);
+        }
+        assertEquals(0, window.getFirstPosition());
+        assertEquals(SIDE_BUFFER + 1, window.size());
+    }
+
+    @Test
+    public void mapsPositionsAcrossTheRingWrap() {
+        PageWindow<String> window = new PageWindow<String>(3);
+        window.reset(4);
+        window.addLast("4");
+        window.addLast("5");
+        window.addLast("6");
+        window.removeFirst();
+        window.addLast("7");
+        window.removeFirst();
+        window.addLast("8");
+
+        assertEquals(6, window.getFirstPosition());
+        assertEquals(1, window.indexOfPosition(7));
+        assertEquals(-1, window.indexOfPosition(5));
+        assertEquals("8", window.getAtPosition(8));
+        assertNull(window.getAtPosition(9));
+        assertEquals(8, window.positionAt(2));
+    }
+
+    @Test
+    public void addsFirstBeforeTheAnchor() {
+        PageWindow<String> window = new PageWindow<String>(3);
+        window.reset(5);
+        window.addLast("5");
+        window.addFirst("4");
+        window.addFirst("3");
+
+        assertTrue(window.isFull());
+        assertEquals(3, window.getFirstPosition());
+        assertEquals("3", window.getFirst());
+        assertEquals("5", window.getLast());
+    }
+
+    @Test
+    public void setReplacesAnItemInPlace() {
+        PageWindow<String> window = new PageWindow<String>(3);
+        window.reset(4);
+        window.addLast("4");
+        window.addLast("5");
+        window.addLast("6");
+        window.removeFirst();
+        window.addLast("7");
+        window.set(2, "seven");
+
+        assertEquals("seven", window.getAtPosition(7));
+        assertEquals(5, window.getFirstPosition());
+        assertEquals(3, window.size());
+    }
+
+    @Test
+    public void resetClearsTheSlots() {
+        PageWindow<String> window = new PageWindow<String>(2 * SIDE_BUFFER + 1);
+        moveTo(window, 1);
+        window.reset(7);
+
+        assertTrue(window.isEmpty());
+        assertEquals(7, window.getFirstPosition());
+        assertFalse(window.containsPosition(1));
+    }
+
+    @Test
+    public void rejectsAddingToAFullWindow() {
+        PageWindow<String> window = new PageWindow<String>(1);
+        window.addLast("0");
+        try {
+            window.addFirst("-1");
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsIndicesOutsideTheWindow() {
+        PageWindow<String> window = new PageWindow<String>(3);
+        window.addLast("0");
+        window.get(1);
+    }
+
+    /**
+     * Shifts the window the way ViewFlow does, dropping pages on one side and binding
+     * the new ones on the other, clamped to the adapter ends.
+     */
+    private static void moveTo(PageWindow<String> window, int position) {
+        int first = Math.max(0, position - SIDE_BUFFER);
+        int last = Math.min(COUNT - 1, position + SIDE_BUFFER);
+        while (!window.isEmpty() && window.getFirstPosition() < first) {
+            window.removeFirst();
+        }
+        while (!window.isEmpty() && window.getLastPosition() > last) {
+            window.removeLast();
+        }
+        if (window.isEmpty()) {
+            window.reset(first);
+        }
+        while (window.getFirstPosition() > first) {
+            window.addFirst(String.valueOf(window.getFirstPosition() - 1));
+        }
+        while (window.getLastPosition() < last) {
+            window.addLast(String.valueOf(window.getLastPosition() + 1));
+        }
+    }
+
+    private static void assertContents(PageWindow<String> window) {
+        for (int i = 0; i < window.size(); i++) {
+            int position = window.getFirstPosition() + i;
+            assertEquals(String.valueOf(position), window.get(i));
+            assertEquals(i, window.indexOfPosition(position));
+        }
+    }
+}
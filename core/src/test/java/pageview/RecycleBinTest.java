@@ -0,0 +1,84 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RecycleBinTest {
+    private final List<Object> discarded = new ArrayList<Object>();
+    private RecycleBin<Object> bin;
+
+    @Before
+    public void setUp() {
+        bin = new RecycleBin<Object>(2, new RecycleBin.OnDiscardListener<Object>() {
+
+            @Override
+            public void onDiscard(Object view) {
+                discarded.add(view);
+            }
+        });
+        bin.setViewTypeCount(2);
+    }
+
+    @Test
+    public void returnsViewsOfTheRequestedType() {
+        Object text = new Object();
+        Object image = new Object();
+        bin.addScrapView(text, 0);
+        bin.addScrapView(image, 1);
+
+        assertSame(image, bin.getScrapView(1));
+        assertNull(bin.getScrapView(1));
+        assertSame(text, bin.getScrapView(0));
+        assertEquals(0, bin.getScrapCount(0));
+    }
+
+    @Test
+    public void discardsAboveTheCapacityOfAType() {
+        Object third = new Object();
+        bin.addScrapView(new Object(), 0);
+        bin.addScrapView(new Object(), 0);
+        bin.addScrapView(third, 0);
+
+        assertEquals(2, bin.getScrapCount(0));
+        assertEquals(1, discarded.size());
+        assertSame(third, discarded.get(0));
+    }
+
+    @Test
+    public void discardsViewsOfUnknownTypes() {
+        Object view = new Object();
+        bin.addScrapView(view, 2);
+        bin.addScrapView(view, -1);
+
+        assertEquals(2, discarded.size());
+        assertNull(bin.getScrapView(2));
+    }
+
+    @Test
+    public void shrinkingTheCapacityDiscardsTheSurplus() {
+        bin.addScrapView(new Object(), 1);
+        bin.addScrapView(new Object(), 1);
+        bin.setCapacity(1, 0);
+
+        assertEquals(0, bin.getScrapCount(1));
+        assertEquals(2, discarded.size());
+    }
+
+    @Test
+    public void changingTheViewTypeCountClearsTheHeaps() {
+        bin.setCapacity(1, 4);
+        bin.addScrapView(new Object(), 0);
+        bin.setViewTypeCount(3);
+
+        assertEquals(1, discarded.size());
+        assertEquals(4, bin.getCapacity(1));
+        assertEquals(2, bin.getCapacity(2));
+    }
+}
@@ -0,0 +1,151 @@
+package pageview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpringPageAnimatorTest {
+    private static final long FRAME_MILLIS = 16;
+    private static final int WIDTH = 1000;
+
+    private SpringPageAnimator animator;
+    private long now;
+
+    @Before
+    public void setUp() {
+        animator = new SpringPageAnimator();
+        now = 5000;
+    }
+
+    @Test
+    public void settlesOnTheTargetWithoutOvershoot() {
+        animator.start(0, 0, WIDTH, now);
+        int previous = 0;
+        int frames = 0;
+        while (step()) {
+            int offset = animator.getOffset();
+            assertTrue(offset >= previous);
+            assertTrue(offset <= WIDTH);
+            previous = offset;
+            assertTrue(++frames < 200);
+        }
+        assertEquals(WIDTH, animator.getOffset());
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void releaseVelocityMovesTheOffsetAlongFirst() {
+        animator.start(0, -3000, WIDTH, now);
+        step();
+
+        assertTrue(animator.getOffset() < 0);
+        assertTrue(animator.isRunning());
+    }
+
+    @Test
+    public void retargetKeepsTheMotion() {
+        SpringPageAnimator reference = new SpringPageAnimator();
+        animator.start(0, 0, WIDTH, now);
+        reference.start(0, 0, WIDTH, now);
+        for (int i = 0; i < 5; i++) {
+            step();
+            reference.step(now);
+        }
+        int offset = animator.getOffset();
+
+        animator.retarget(2 * WIDTH);
+        step();
+        reference.step(now);
+
+        assertEquals(2 * WIDTH, animator.getTarget());
+        assertTrue(animator.getOffset() > offset);
+        // Same motion up to the retarget, then pulled further
+        assertTrue(animator.getOffset() >= reference.getOffset());
+        while (step()) {
+        }
+        assertEquals(2 * WIDTH, animator.getOffset());
+    }
+
+    @Test
+    public void retargetBackwardsReversesWithoutJumping() {
+        animator.start(0, 0, WIDTH, now);
+        for (int i = 0; i < 5; i++) {
+            step();
+        }
+        int offset = animator.getOffset();
+
+        animator.retarget(0);
+        step();
+        assertTrue(Math.abs(animator.getOffset() - offset) < WIDTH / 4);
+        while (step()) {
+        }
+        assertEquals(0, animator.getOffset());
+    }
+
+    @Test
+    public void sameFrameTimesGiveTheSameOffsets() {
+        SpringPageAnimator other = new SpringPageAnimator();
+        animator.start(0, 1500, WIDTH, now);
+        other.start(0, 1500, WIDTH, now);
+        long[] frames = { 7, 16, 16, 33, 5, 16, 50 };
+        for (int i = 0; i < frames.length; i++) {
+            now += frames[i];
+            animator.step(now);
+            other.step(now);
+            assertEquals(animator.getOffset(), other.getOffset());
+        }
+    }
+
+    @Test
+    public void stalledFrameMovesByAtMostTheFrameCap() {
+        SpringPageAnimator capped = new SpringPageAnimator();
+        animator.start(0, 0, 10 * WIDTH, now);
+        capped.start(0, 0, 10 * WIDTH, now);
+
+        animator.step(now + 100);
+        capped.step(now + 5000);
+
+        assertEquals(animator.getOffset(), capped.getOffset());
+    }
+
+    @Test
+    public void overshootIsAllowedWhenEnabled() {
+        animator.setAllowOvershoot(true);
+        animator.setDampingRatio(0.3f);
+        animator.start(0, 0, WIDTH, now);
+        int max = 0;
+        while (step()) {
+            max = Math.max(max, animator.getOffset());
+        }
+        assertTrue(max > WIDTH);
+        assertEquals(WIDTH, animator.getOffset());
+    }
+
+    @Test
+    public void startingOnTheTargetAtRestDoesNotRun() {
+        animator.start(WIDTH, 0, WIDTH, now);
+
+        assertFalse(animator.isRunning());
+        assertFalse(step());
+    }
+
+    @Test
+    public void stopKeepsTheOffset() {
+        animator.start(0, 0, WIDTH, now);
+        step();
+        step();
+        int offset = animator.getOffset();
+        animator.stop();
+
+        assertFalse(step());
+        assertEquals(offset, animator.getOffset());
+    }
+
+    private boolean step() {
+        now += FRAME_MILLIS;
+        return animator.step(now);
+    }
+}
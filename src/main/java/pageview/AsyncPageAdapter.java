@@ -0,0 +1,26 @@
+package pageview;
+
+import android.view.View;
+import android.widget.Adapter;
+
+/**
+ * Optional {@link Adapter} contract for pages that are expensive to bind. {@link ViewFlow}
+ * binds such pages in two phases: {@link #preparePage(int)} runs on a background executor
+ * for every position entering the buffer, and {@link #bindPage(int, View, Object)} applies
+ * its result on the UI thread. Until then the page shows whatever {@code getView} returned,
+ * which should be a cheap placeholder state.
+ */
+public interface AsyncPageAdapter extends Adapter {
+
+    /**
+     * Does the expensive part of binding, like loading data or decoding images.
+     * Called on a background thread, must not touch views.
+     */
+    public Object preparePage(int position);
+
+    /**
+     * Applies the result of {@link #preparePage(int)} to the page view.
+     * Called on the UI thread, only while the position is still buffered.
+     */
+    public void bindPage(int position, View view, Object prepared);
+}
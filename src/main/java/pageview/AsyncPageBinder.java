@@ -0,0 +1,136 @@
+package pageview;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs the two binding phases of an {@link AsyncPageAdapter}: pages are prepared on the
+ * background executor and bound through the UI executor. Pending work is tracked per view
+ * and cancelled when the view leaves the buffer. All methods must be called from the
+ * thread the UI executor runs on.
+ */
+class AsyncPageBinder {
+
+    static interface OnPageBoundListener {
+        void onPageBound(int position, View view);
+    }
+
+    private static ExecutorService defaultExecutor;
+
+    private final Executor backgroundExecutor;
+    private final Executor uiExecutor;
+    private final ArrayList<Task> pending = new ArrayList<Task>();
+    private OnPageBoundListener onPageBoundListener;
+
+    AsyncPageBinder(Executor backgroundExecutor, Executor uiExecutor) {
+        this.backgroundExecutor = backgroundExecutor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ViewFlow page binder");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return defaultExecutor;
+    }
+
+    public void setOnPageBoundListener(OnPageBoundListener listener) {
+        onPageBoundListener = listener;
+    }
+
+    public void bind(AsyncPageAdapter adapter, int position, View view) {
+        cancel(view);
+        Task task = new Task(adapter, position, view);
+        pending.add(task);
+        backgroundExecutor.execute(task);
+    }
+
+    /**
+     * @return whether work was pending for the view
+     */
+    public boolean cancel(View view) {
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            Task task = pending.get(i);
+            if (task.view == view) {
+                pending.remove(i);
+                task.cancel(false);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void cancelAll() {
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            pending.remove(i).cancel(false);
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private final class Task extends FutureTask<Object> {
+        final int position;
+        final View view;
+        private final AsyncPageAdapter adapter;
+        private final Runnable deliver = new Runnable() {
+
+            @Override
+            public void run() {
+                if (isCancelled() || !pending.remove(Task.this)) {
+                    return;
+                }
+                Object prepared;
+                try {
+                    prepared = get();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to prepare page " + position, e.getCause());
+                }
+                adapter.bindPage(position, view, prepared);
+                if (onPageBoundListener != null) {
+                    onPageBoundListener.onPageBound(position, view);
+                }
+            }
+        };
+
+        Task(final AsyncPageAdapter adapter, final int position, View view) {
+            super(new Callable<Object>() {
+
+                @Override
+                public Object call() {
+                    return adapter.preparePage(position);
+                }
+            });
+            this.adapter = adapter;
+            this.position = position;
+            this.view = view;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                uiExecutor.execute(deliver);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package pageview;
+
+/**
+ * {@link ViewFlow.MetricsListener} that sums everything up in counters. Read the counters
+ * whenever convenient, e.g. when the screen is left, and {@link #reset()} them afterwards.
+ * Resetting before and reading after a single swipe, jump or data change gives the
+ * getView, inflation, measure, layout and invalidation cost of that operation.
+ * Not thread safe; read it on the UI thread.
+ */
+public class FlowMetrics implements ViewFlow.MetricsListener {
+    private long pagesBound;
+    private long recycleHits;
+    private long bindNanos;
+    private long maxBindNanos;
+    private long switches;
+    private long measurePasses;
+    private long layoutPasses;
+    private long offsetLayouts;
+    private long offsetMeasuredChildren;
+    private long invalidations;
+    private long dataSetRebuilds;
+    private long reboundPages;
+    private int bufferedPages;
+    private int maxBufferedPages;
+
+    @Override
+    public void onPageBound(int position, long bindNanos, boolean recycled) {
+        pagesBound++;
+        if (recycled) {
+            recycleHits++;
+        }
+        this.bindNanos += bindNanos;
+        maxBindNanos = Math.max(maxBindNanos, bindNanos);
+    }
+
+    @Override
+    public void onBufferChanged(int bufferedPages) {
+        this.bufferedPages = bufferedPages;
+        maxBufferedPages = Math.max(maxBufferedPages, bufferedPages);
+    }
+
+    @Override
+    public void onMeasurePass(int childCount) {
+        measurePasses++;
+    }
+
+    @Override
+    public void onLayoutPass(int childCount) {
+        layoutPasses++;
+    }
+
+    @Override
+    public void onOffsetLayout(int measuredChildren, int offsetChildren) {
+        offsetLayouts++;
+        offsetMeasuredChildren += measuredChildren;
+    }
+
+    @Override
+    public void onInvalidate() {
+        invalidations++;
+    }
+
+    @Override
+    public void onSwitched(int position) {
+        switches++;
+    }
+
+    @Override
+    public void onDataSetRebuilt(int reboundPages, int bufferedPages) {
+        dataSetRebuilds++;
+        this.reboundPages += reboundPages;
+    }
+
+    public long getPagesBound() {
+        return pagesBound;
+    }
+
+    public long getRecycleHits() {
+        return recycleHits;
+    }
+
+    /**
+     * Pages the adapter bound into a new view instead of the convert view it was given.
+     */
+    public long getInflations() {
+        return pagesBound - recycleHits;
+    }
+
+    public long getBindNanos() {
+        return bindNanos;
+    }
+
+    public long getAverageBindNanos() {
+        return pagesBound == 0 ? 0 : bindNanos / pagesBound;
+    }
+
+    public long getMaxBindNanos() {
+        return maxBindNanos;
+    }
+
+    public long getSwitches() {
+        return switches;
+    }
+
+    public long getMeasurePasses() {
+        return measurePasses;
+    }
+
+    public long getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    /**
+     * Shifted buffers laid out by offset instead of a layout pass.
+     */
+    public long getOffsetLayouts() {
+        return offsetLayouts;
+    }
+
+    /**
+     * Children measured and laid out by offset layouts, the pages that entered the buffer.
+     */
+    public long getOffsetMeasuredChildren() {
+        return offsetMeasuredChildren;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Layout passes and offset layouts per switch.
+     */
+    public float getLayoutPassesPerSwitch() {
+        return switches == 0 ? 0 : (float) (layoutPasses + offsetLayouts) / switches;
+    }
+
+    public long getDataSetRebuilds() {
+        return dataSetRebuilds;
+    }
+
+    public long getReboundPages() {
+        return reboundPages;
+    }
+
+    public int getBufferedPages() {
+        return bufferedPages;
+    }
+
+    public int getMaxBufferedPages() {
+        return maxBufferedPages;
+    }
+
+    public void reset() {
+        pagesBound = 0;
+        recycleHits = 0;
+        bindNanos = 0;
+        maxBindNanos = 0;
+        switches = 0;
+        measurePasses = 0;
+        layoutPasses = 0;
+        offsetLayouts = 0;
+        offsetMeasuredChildren = 0;
+        invalidations = 0;
+        dataSetRebuilds = 0;
+        reboundPages = 0;
+        maxBufferedPages = bufferedPages;
+    }
+}
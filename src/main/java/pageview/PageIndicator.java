@@ -2,34 +2,77 @@ package pageview;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
 import android.view.View;
 import android.widget.Adapter;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import com.gulfstream.gcms.client.controls.R;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Draws one dot per page from two cached drawables. The current page dot follows the
+ * {@link ViewFlow} scroll offset while dragging and snapping; each move only invalidates
+ * the span it covered and allocates nothing. When there are more pages than
+ * {@link #setMaxVisibleDots(int)}, only a window of dots around the current page is drawn.
+ */
 public class PageIndicator extends LinearLayout implements FlowIndicator {
-    private int defaultPageImageId;
-    private int currentPageImageId;
+    private static final int DEFAULT_MAX_VISIBLE_DOTS = 15;
+
+    private Drawable currentPageDrawable;
+    private Drawable defaultPageDrawable;
     private int margin;
-    private int currentPageNumber = 0;
-    private int pagesCount;
-    private Context context;
-    private List<ImageView> pageViews = new ArrayList<ImageView>();
+    private final IndicatorDots dots = new IndicatorDots(DEFAULT_MAX_VISIBLE_DOTS);
+    private int dotWidth;
+    private int dotHeight;
+    private final Rect dotBounds = new Rect();
     private ViewFlow mViewFlow;
 
+    /**
+     * Creates an indicator with the default dots, for building a {@link PageView} in code.
+     */
+    public PageIndicator(Context context) {
+        super(context);
+
+        margin = 3;
+        setWillNotDraw(false);
+        setPageDrawables(getResources().getDrawable(R.drawable.dot_on),
+                getResources().getDrawable(R.drawable.dot_off));
+    }
+
     public PageIndicator(Context context, AttributeSet attrs) {
         super(context, attrs);
 
-        this.context = context;
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.PageViewIndicator);
-        currentPageImageId = a.getResourceId(R.styleable.PageViewIndicator_activePageImage, R.drawable.dot_on);
-        defaultPageImageId = a.getResourceId(R.styleable.PageViewIndicator_inactivePageImage, R.drawable.dot_off);
+        int currentPageImageId = a.getResourceId(R.styleable.PageViewIndicator_activePageImage, R.drawable.dot_on);
+        int defaultPageImageId = a.getResourceId(R.styleable.PageViewIndicator_inactivePageImage, R.drawable.dot_off);
         margin = (int) a.getDimension(R.styleable.PageViewIndicator_eachImageMargin, 3);
+        a.recycle();
+
+        setWillNotDraw(false);
+        setPageDrawables(getResources().getDrawable(currentPageImageId),
+                getResources().getDrawable(defaultPageImageId));
+    }
+
+    public void setPageDrawables(Drawable currentPage, Drawable defaultPage) {
+        currentPageDrawable = currentPage;
+        defaultPageDrawable = defaultPage;
+        dotWidth = Math.max(currentPage.getIntrinsicWidth(), defaultPage.getIntrinsicWidth());
+        dotHeight = Math.max(currentPage.getIntrinsicHeight(), defaultPage.getIntrinsicHeight());
+        dots.setDotSize(dotWidth, margin);
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets how many dots are drawn at most. Above that page count the indicator shows a
+     * window of dots that follows the current page.
+     */
+    public void setMaxVisibleDots(int maxVisibleDots) {
+        dots.setMaxVisibleDots(maxVisibleDots);
+        requestLayout();
+        invalidate();
     }
 
     @Override
@@ -42,40 +85,90 @@ public class PageIndicator extends LinearLayout implements FlowIndicator {
     public void onSetAdapter() {
         Adapter adapter = mViewFlow.getAdapter();
         if (adapter != null) {
-            pagesCount = adapter.getCount();
-            setUpView();
+            dots.setPageCount(adapter.getCount());
+            requestLayout();
+            invalidate();
         }
     }
 
+    /**
+     * @param h scroll offset of the flow in pixels, counted from the first adapter page
+     */
     @Override
     public void onScrolled(int h, int v, int oldh, int oldv) {
+        int pageWidth = mViewFlow != null ? mViewFlow.getWidth() : 0;
+        moveCurrentDot(dots.getScrollOffset(h, pageWidth));
     }
 
     @Override
     public void onSwitched(View view, int position) {
-        currentPageNumber = position;
+        if (dots.setCurrentPage(position)) {
+            invalidate();
+        } else {
+            moveCurrentDot(position * dots.getStep());
+        }
+    }
 
-        updateView();
+    private void moveCurrentDot(int offset) {
+        if (dots.moveCurrentDot(offset)) {
+            int left = getContentLeft();
+            int top = getDotTop();
+            invalidate(left + dots.getDirtyStart(), top, left + dots.getDirtyEnd(), top + dotHeight);
+        }
     }
 
-    private void setUpView() {
-        LayoutParams p = new LayoutParams(
-                LayoutParams.WRAP_CONTENT,
-                LayoutParams.WRAP_CONTENT);
-        p.setMargins(margin, 0, margin, 0);
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getPaddingLeft() + getPaddingRight()
+                + dots.getVisibleDotsCount() * dots.getStep();
+        int height = getPaddingTop() + getPaddingBottom() + dotHeight;
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
 
-        for (int i = 0; i < pagesCount; i++) {
-            ImageView dot = new ImageView(context);
-            dot.setImageResource((i == currentPageNumber) ? currentPageImageId : defaultPageImageId);
-            pageViews.add(dot);
-            this.addView(dot, p);
-        }
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
     }
 
-    private void updateView() {
-        for (int i = 0; i < pageViews.size(); i++) {
-            ImageView imageView = pageViews.get(i);
-            imageView.setImageResource((i == currentPageNumber) ? currentPageImageId : defaultPageImageId);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (dots.getPageCount() == 0) {
+            return;
         }
+        int step = dots.getStep();
+        int currentDotOffset = dots.getCurrentDotOffset();
+        int lastVisibleDot = dots.getFirstVisibleDot() + dots.getVisibleDotsCount();
+        for (int i = dots.getFirstVisibleDot(); i < lastVisibleDot; i++) {
+            if (i * step != currentDotOffset) {
+                drawDot(canvas, defaultPageDrawable, i * step);
+            }
+        }
+        drawDot(canvas, currentPageDrawable, currentDotOffset);
+    }
+
+    private void drawDot(Canvas canvas, Drawable dot, int offset) {
+        setDotBoundsAt(dotBounds, offset);
+        dot.setBounds(dotBounds.left, dotBounds.top, dotBounds.right, dotBounds.bottom);
+        dot.draw(canvas);
+    }
+
+    /**
+     * Dots are centered horizontally.
+     *
+     * @param offset distance in pixels from where the dot of page 0 would start
+     */
+    private void setDotBoundsAt(Rect rect, int offset) {
+        int left = getContentLeft() + dots.getDotLeft(offset);
+        int top = getDotTop();
+        rect.set(left, top, left + dotWidth, top + dotHeight);
+    }
+
+    private int getContentLeft() {
+        int contentWidth = dots.getVisibleDotsCount() * dots.getStep();
+        return getPaddingLeft() + (getWidth() - getPaddingLeft() - getPaddingRight() - contentWidth) / 2;
+    }
+
+    private int getDotTop() {
+        return getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom() - dotHeight) / 2;
     }
 }
@@ -0,0 +1,214 @@
+package pageview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+/**
+ * Bitmap snapshots of {@link ViewFlow} pages keyed by adapter position. Bitmaps of evicted
+ * or invalidated snapshots are pooled and drawn over when a page of the same size is
+ * captured next. Snapshots and pooled bitmaps together hold at most {@code maxBytes}; pooled
+ * bitmaps are recycled first, then the least recently used snapshots are evicted. Lookups
+ * scan a handful of entries and never allocate.
+ */
+class PageSnapshotCache {
+    private static final int MAX_POOLED_BITMAPS = 2;
+
+    private final Canvas canvas = new Canvas();
+    private final Bitmap[] pool = new Bitmap[MAX_POOLED_BITMAPS];
+    private int pooled;
+    private int[] positions = new int[4];
+    private Bitmap[] bitmaps = new Bitmap[4];
+    private long[] lastUsed = new long[4];
+    private int size;
+    private long clock;
+    private int bytes;
+    private int maxBytes;
+
+    PageSnapshotCache(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void setMaxBytes(int maxBytes) {
+        this.maxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return the size of the snapshots and the pooled bitmaps
+     */
+    public int getBytes() {
+        return bytes;
+    }
+
+    public boolean contains(int position) {
+        return indexOf(position) >= 0;
+    }
+
+    /**
+     * Renders the page into its snapshot, reusing the snapshot's bitmap when possible.
+     */
+    public void capture(int position, View page) {
+        final int width = page.getWidth();
+        final int height = page.getHeight();
+        if (width == 0 || height == 0 || bytesOf(width, height) > maxBytes) {
+            invalidate(position);
+            return;
+        }
+
+        int index = indexOf(position);
+        Bitmap bitmap = (index >= 0 ? bitmaps[index] : null);
+        if (bitmap != null && (bitmap.getWidth() != width || bitmap.getHeight() != height)) {
+            remove(index);
+            index = -1;
+            bitmap = null;
+        }
+        if (bitmap == null) {
+            bitmap = takePooled(width, height);
+            if (bitmap == null) {
+                trimToSize(maxBytes - bytesOf(width, height));
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                bytes += bytesOf(width, height);
+            }
+            index = put(position, bitmap);
+        }
+
+        bitmap.eraseColor(Color.TRANSPARENT);
+        canvas.setBitmap(bitmap);
+        page.draw(canvas);
+        lastUsed[index] = ++clock;
+    }
+
+    /**
+     * Draws the snapshot of {@code position} with its top left corner at {@code left, top}.
+     *
+     * @return false if there is no snapshot for the position
+     */
+    public boolean draw(Canvas target, int position, int left, int top) {
+        final int index = indexOf(position);
+        if (index < 0) {
+            return false;
+        }
+        lastUsed[index] = ++clock;
+        target.drawBitmap(bitmaps[index], left, top, null);
+        return true;
+    }
+
+    public void invalidate(int position) {
+        final int index = indexOf(position);
+        if (index >= 0) {
+            remove(index);
+        }
+    }
+
+    public void invalidateAll() {
+        while (size > 0) {
+            remove(size - 1);
+        }
+    }
+
+    /**
+     * Drops all snapshots and pooled bitmaps.
+     */
+    public void clear() {
+        invalidateAll();
+        while (pooled > 0) {
+            recycleOldestPooled();
+        }
+    }
+
+    private void trimToSize(int maxBytes) {
+        while (bytes > maxBytes && (pooled > 0 || size > 0)) {
+            if (pooled > 0) {
+                recycleOldestPooled();
+                continue;
+            }
+            int oldest = 0;
+            for (int i = 1; i < size; i++) {
+                if (lastUsed[i] < lastUsed[oldest]) {
+                    oldest = i;
+                }
+            }
+            remove(oldest);
+        }
+    }
+
+    private int indexOf(int position) {
+        for (int i = 0; i < size; i++) {
+            if (positions[i] == position) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int put(int position, Bitmap bitmap) {
+        if (size == positions.length) {
+            int capacity = size * 2;
+            int[] newPositions = new int[capacity];
+            Bitmap[] newBitmaps = new Bitmap[capacity];
+            long[] newLastUsed = new long[capacity];
+            System.arraycopy(positions, 0, newPositions, 0, size);
+            System.arraycopy(bitmaps, 0, newBitmaps, 0, size);
+            System.arraycopy(lastUsed, 0, newLastUsed, 0, size);
+            positions = newPositions;
+            bitmaps = newBitmaps;
+            lastUsed = newLastUsed;
+        }
+        positions[size] = position;
+        bitmaps[size] = bitmap;
+        return size++;
+    }
+
+    private void remove(int index) {
+        final Bitmap bitmap = bitmaps[index];
+        final int last = --size;
+        positions[index] = positions[last];
+        bitmaps[index] = bitmaps[last];
+        lastUsed[index] = lastUsed[last];
+        bitmaps[last] = null;
+        release(bitmap);
+    }
+
+    /**
+     * @return a pooled bitmap of the size, or {@code null}
+     */
+    private Bitmap takePooled(int width, int height) {
+        for (int i = 0; i < pooled; i++) {
+            Bitmap bitmap = pool[i];
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                pool[i] = pool[--pooled];
+                pool[pooled] = null;
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pools the bitmap of a removed snapshot, it keeps counting against the size.
+     */
+    private void release(Bitmap bitmap) {
+        if (pooled == pool.length) {
+            recycleOldestPooled();
+        }
+        pool[pooled++] = bitmap;
+    }
+
+    private void recycleOldestPooled() {
+        final Bitmap bitmap = pool[0];
+        bytes -= bytesOf(bitmap.getWidth(), bitmap.getHeight());
+        bitmap.recycle();
+        System.arraycopy(pool, 1, pool, 0, pooled - 1);
+        pool[--pooled] = null;
+    }
+
+    private static int bytesOf(int width, int height) {
+        return width * height * 4;
+    }
+}
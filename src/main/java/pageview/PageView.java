@@ -10,6 +10,25 @@ import com.gulfstream.gcms.client.controls.R;
 public class PageView extends RelativeLayout {
     private ViewFlow mViewFlow;
 
+    /**
+     * Builds the flow and its indicator in code, without inflating a layout. Cheaper
+     * for pages created in bulk, like carousels in list rows.
+     */
+    public PageView(Context context) {
+        super(context);
+
+        mViewFlow = new ViewFlow(context);
+        addView(mViewFlow, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+
+        PageIndicator indicator = new PageIndicator(context);
+        LayoutParams indicatorParams = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+        indicatorParams.addRule(ALIGN_PARENT_BOTTOM);
+        indicatorParams.addRule(CENTER_HORIZONTAL);
+        addView(indicator, indicatorParams);
+
+        mViewFlow.setFlowIndicator(indicator);
+    }
+
     public PageView(Context context, AttributeSet attrs) {
         super(context, attrs);
 
@@ -26,10 +45,21 @@ public class PageView extends RelativeLayout {
         mViewFlow.getAdapter();
     }
 
+    /**
+     * Switches to another adapter. The pages of the previous one are recycled into the
+     * page view pool, if one is set, so a recycled PageView rebinds instead of inflating.
+     */
     public void setAdapter(Adapter adapter) {
         mViewFlow.setAdapter(adapter);
     }
 
+    /**
+     * @see ViewFlow#setPageViewPool(PageViewPool)
+     */
+    public void setPageViewPool(PageViewPool pool) {
+        mViewFlow.setPageViewPool(pool);
+    }
+
     public void getSelectedView() {
         mViewFlow.getSelectedView();
     }
@@ -0,0 +1,83 @@
+package pageview;
+
+import android.view.View;
+
+/**
+ * Page views shared by several {@link ViewFlow}s, for example carousels in the rows of a
+ * list. Pages that leave one flow's buffer become convert views for any other flow using
+ * the pool, so scrolling the outer list rebinds pages instead of inflating them. Views are
+ * keyed by adapter view type; flows sharing a pool must use adapters whose view types
+ * are interchangeable. Above the global capacity the oldest pooled view is dropped.
+ * All methods must be called from the UI thread.
+ */
+public class PageViewPool {
+    private View[] views;
+    private int[] viewTypes;
+    private int size;
+
+    public PageViewPool(int capacity) {
+        views = new View[Math.max(0, capacity)];
+        viewTypes = new int[views.length];
+    }
+
+    /**
+     * Sets the global capacity, dropping the oldest views above it.
+     */
+    public void setCapacity(int capacity) {
+        capacity = Math.max(0, capacity);
+        int dropped = Math.max(0, size - capacity);
+        View[] newViews = new View[capacity];
+        int[] newViewTypes = new int[capacity];
+        System.arraycopy(views, dropped, newViews, 0, size - dropped);
+        System.arraycopy(viewTypes, dropped, newViewTypes, 0, size - dropped);
+        views = newViews;
+        viewTypes = newViewTypes;
+        size -= dropped;
+    }
+
+    public int getCapacity() {
+        return views.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a view that has no parent.
+     */
+    public void put(int viewType, View view) {
+        if (views.length == 0) {
+            return;
+        }
+        if (size == views.length) {
+            System.arraycopy(views, 1, views, 0, size - 1);
+            System.arraycopy(viewTypes, 1, viewTypes, 0, size - 1);
+            size--;
+        }
+        views[size] = view;
+        viewTypes[size++] = viewType;
+    }
+
+    /**
+     * @return the most recently pooled view of the type, or {@code null}
+     */
+    public View get(int viewType) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (viewTypes[i] == viewType) {
+                View view = views[i];
+                System.arraycopy(views, i + 1, views, i, size - i - 1);
+                System.arraycopy(viewTypes, i + 1, viewTypes, i, size - i - 1);
+                views[--size] = null;
+                return view;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        while (size > 0) {
+            views[--size] = null;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package pageview;
+
+import android.os.Handler;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Adapter over a {@link PagedDataSource} that never loads on the UI thread. Items are
+ * loaded in chunks of {@code chunkSize} on the background executor, starting with the
+ * chunks within {@link #setPrefetchDistance(int) the prefetch distance} of every position
+ * {@link ViewFlow} asks a view for. Until its chunk arrives, a page is bound with a
+ * {@code null} item and should render a placeholder.
+ * <p>
+ * Loaded chunks are kept in an LRU cache bounded by {@link #setMaxChunks(int)} and, when
+ * {@link #sizeOf(Object)} is overridden, by {@link #setMaxBytes(int)}. Loads of chunks that
+ * fell far behind the requested position are cancelled. An arrived chunk is handed to the
+ * {@link OnItemsLoadedListener}, which {@link ViewFlow} sets to rebind just the pages of the
+ * chunk. Without a listener, {@code notifyDataSetChanged()} announces the chunks holding
+ * items that were bound as placeholders since the last change. All methods must be called
+ * from the thread the UI executor runs on.
+ */
+public abstract class PagedAdapter<T> extends BaseAdapter {
+    private static final int DEFAULT_MAX_CHUNKS = 8;
+
+    public static interface OnItemsLoadedListener {
+
+        /**
+         * Called on the UI thread when the items of {@code count} positions from
+         * {@code start} on have been loaded.
+         */
+        void onItemsLoaded(int start, int count);
+    }
+
+    private final PagedDataSource<T> dataSource;
+    private final int chunkSize;
+    private final Executor backgroundExecutor;
+    private final Executor uiExecutor;
+    private final LinkedHashMap<Integer, Chunk> chunks = new LinkedHashMap<Integer, Chunk>(16, 0.75f, true);
+    private final ArrayList<LoadTask> loading = new ArrayList<LoadTask>();
+    private int count;
+    private int prefetchDistance;
+    private int maxChunks = DEFAULT_MAX_CHUNKS;
+    private int maxBytes;
+    private int bytes;
+    private int generation;
+    private int firstWantedChunk;
+    private int lastWantedChunk = -1;
+    private int firstPlaceholder = Integer.MAX_VALUE;
+    private int lastPlaceholder = -1;
+    private OnItemsLoadedListener onItemsLoadedListener;
+
+    /**
+     * Loads on the shared ViewFlow background thread and delivers through a handler of
+     * the calling thread.
+     */
+    public PagedAdapter(PagedDataSource<T> dataSource, int chunkSize) {
+        this(dataSource, chunkSize, AsyncPageBinder.getDefaultExecutor(), new Executor() {
+            private final Handler handler = new Handler();
+
+            @Override
+            public void execute(Runnable command) {
+                handler.post(command);
+            }
+        });
+    }
+
+    /**
+     * @param uiExecutor runs loaded chunks on the thread this adapter is used from
+     */
+    public PagedAdapter(PagedDataSource<T> dataSource, int chunkSize, Executor backgroundExecutor,
+            Executor uiExecutor) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.dataSource = dataSource;
+        this.chunkSize = chunkSize;
+        this.backgroundExecutor = backgroundExecutor;
+        this.uiExecutor = uiExecutor;
+        prefetchDistance = chunkSize;
+        count = dataSource.getCount();
+    }
+
+    /**
+     * Binds {@code item} to the page of {@code position}.
+     *
+     * @param item the loaded item, or {@code null} while it is still loading
+     */
+    public abstract View getView(int position, T item, View convertView, ViewGroup parent);
+
+    /**
+     * Weight of an item against {@link #setMaxBytes(int)}, 0 by default.
+     */
+    protected int sizeOf(T item) {
+        return 0;
+    }
+
+    /**
+     * Sets how many items around a requested position are loaded ahead of time.
+     * Defaults to the chunk size.
+     */
+    public void setPrefetchDistance(int items) {
+        prefetchDistance = Math.max(0, items);
+    }
+
+    /**
+     * Sets how many loaded chunks are kept, at least one.
+     */
+    public void setMaxChunks(int maxChunks) {
+        this.maxChunks = Math.max(1, maxChunks);
+        trimToSize();
+    }
+
+    /**
+     * Sets the total {@link #sizeOf(Object) size} of the kept chunks, 0 for no limit.
+     */
+    public void setMaxBytes(int maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        trimToSize();
+    }
+
+    /**
+     * Sets the listener rebinding the pages of loaded items in place of a data set
+     * change. Only one view can show the adapter's pages this way.
+     */
+    public void setOnItemsLoadedListener(OnItemsLoadedListener listener) {
+        onItemsLoadedListener = listener;
+    }
+
+    public int getCachedChunkCount() {
+        return chunks.size();
+    }
+
+    public int getLoadingChunkCount() {
+        return loading.size();
+    }
+
+    public boolean isLoaded(int position) {
+        return chunks.containsKey(position / chunkSize);
+    }
+
+    /**
+     * Drops every loaded chunk and reloads the count from the data source.
+     */
+    public void refresh() {
+        generation++;
+        for (int i = loading.size() - 1; i >= 0; i--) {
+            loading.remove(i).cancel(false);
+        }
+        chunks.clear();
+        bytes = 0;
+        count = dataSource.getCount();
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public void notifyDataSetChanged() {
+        // Every page is bound again and reports its placeholders anew
+        firstPlaceholder = Integer.MAX_VALUE;
+        lastPlaceholder = -1;
+        super.notifyDataSetChanged();
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the loaded item, or {@code null} if its chunk is not loaded
+     */
+    @Override
+    public T getItem(int position) {
+        Chunk chunk = chunks.get(position / chunkSize);
+        if (chunk == null) {
+            return null;
+        }
+        int index = position - chunk.start;
+        return index < chunk.items.size() ? chunk.items.get(index) : null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        requestChunks(position);
+        T item = getItem(position);
+        if (item == null) {
+            firstPlaceholder = Math.min(firstPlaceholder, position);
+            lastPlaceholder = Math.max(lastPlaceholder, position);
+        }
+        return getView(position, item, convertView, parent);
+    }
+
+    /**
+     * Loads the chunks within the prefetch distance of {@code position}, nearest first,
+     * and cancels the loads that are too far from it to be needed soon.
+     */
+    private void requestChunks(int position) {
+        int current = position / chunkSize;
+        int first = Math.max(0, position - prefetchDistance) / chunkSize;
+        int last = Math.min(count - 1, position + prefetchDistance) / chunkSize;
+        firstWantedChunk = first;
+        lastWantedChunk = last;
+
+        int keep = 2 * (prefetchDistance / chunkSize + 1);
+        for (int i = loading.size() - 1; i >= 0; i--) {
+            LoadTask task = loading.get(i);
+            if (Math.abs(task.chunk - current) > keep) {
+                loading.remove(i);
+                task.cancel(false);
+            }
+        }
+
+        requestChunk(current);
+        for (int distance = 1; current - distance >= first || current + distance <= last; distance++) {
+            if (current + distance <= last) {
+                requestChunk(current + distance);
+            }
+            if (current - distance >= first) {
+                requestChunk(current - distance);
+            }
+        }
+    }
+
+    private void requestChunk(int chunk) {
+        if (chunks.containsKey(chunk)) {
+            return;
+        }
+        for (int i = 0; i < loading.size(); i++) {
+            if (loading.get(i).chunk == chunk) {
+                return;
+            }
+        }
+        LoadTask task = new LoadTask(chunk, generation);
+        loading.add(task);
+        backgroundExecutor.execute(task);
+    }
+
+    private void onChunkLoaded(LoadTask task, List<T> items) {
+        Chunk chunk = new Chunk(task.chunk * chunkSize, items);
+        for (int i = 0; i < items.size(); i++) {
+            chunk.bytes += sizeOf(items.get(i));
+        }
+        chunks.put(task.chunk, chunk);
+        bytes += chunk.bytes;
+        trimToSize();
+        if (onItemsLoadedListener != null) {
+            onItemsLoadedListener.onItemsLoaded(chunk.start, items.size());
+        } else if (chunk.start <= lastPlaceholder
+                && chunk.start + items.size() > firstPlaceholder) {
+            notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Evicts the least recently used chunks. Chunks around the last requested position
+     * are kept even over the limits, otherwise they would be loaded again right away.
+     */
+    private void trimToSize() {
+        Iterator<Chunk> eldest = chunks.values().iterator();
+        while (eldest.hasNext() && (chunks.size() > maxChunks || maxBytes > 0 && bytes > maxBytes)) {
+            Chunk chunk = eldest.next();
+            int index = chunk.start / chunkSize;
+            if (index < firstWantedChunk || index > lastWantedChunk) {
+                bytes -= chunk.bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private final class Chunk {
+        final int start;
+        final List<T> items;
+        int bytes;
+
+        Chunk(int start, List<T> items) {
+            this.start = start;
+            this.items = items;
+        }
+    }
+
+    private final class LoadTask extends FutureTask<List<T>> {
+        final int chunk;
+        private final int taskGeneration;
+        private final Runnable deliver = new Runnable() {
+
+            @Override
+            public void run() {
+                if (isCancelled() || taskGeneration != generation || !loading.remove(LoadTask.this)) {
+                    return;
+                }
+                List<T> items;
+                try {
+                    items = get();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to load items from " + chunk * chunkSize,
+                            e.getCause());
+                }
+                onChunkLoaded(LoadTask.this, items);
+            }
+        };
+
+        LoadTask(final int chunk, int generation) {
+            super(new Callable<List<T>>() {
+
+                @Override
+                public List<T> call() {
+                    return dataSource.loadRange(chunk * chunkSize, chunkSize);
+                }
+            });
+            this.chunk = chunk;
+            this.taskGeneration = generation;
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                uiExecutor.execute(deliver);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package pageview;
+
+import java.util.List;
+
+/**
+ * Item source of a {@link PagedAdapter}. Items are loaded in ranges on a background
+ * thread, so implementations can query a database or any other slow store.
+ */
+public interface PagedDataSource<T> {
+
+    /**
+     * Called on the UI thread when the adapter is created or refreshed.
+     */
+    public int getCount();
+
+    /**
+     * Loads up to {@code count} items starting at {@code start}. Called on a background
+     * thread; fewer items than asked for mean the rest is missing.
+     */
+    public List<T> loadRange(int start, int count);
+}
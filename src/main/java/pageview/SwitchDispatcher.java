@@ -0,0 +1,166 @@
+package pageview;
+
+import android.view.View;
+
+/**
+ * Delivers page switches of a {@link ViewFlow} to its registered listeners. Immediate
+ * listeners hear about every switch right away. Settled listeners only hear about the
+ * page the flow rests on, once it has stopped scrolling for the settle delay; the
+ * switches they missed in between are summed up as one
+ * {@link ViewFlow.PagesPassedListener#onPagesPassed(int, int, int) range event}.
+ * Dispatching allocates nothing, listeners may add or remove listeners while notified.
+ */
+class SwitchDispatcher {
+    static final int DEFAULT_SETTLE_DELAY = 300;
+
+    private final ViewFlow flow;
+    private ViewFlow.ViewSwitchListener[] listeners = new ViewFlow.ViewSwitchListener[2];
+    private boolean[] settled = new boolean[2];
+    private int size;
+    private int dispatchDepth;
+    private boolean removedWhileDispatching;
+    private int settledCount;
+    private int settleDelay = DEFAULT_SETTLE_DELAY;
+    private boolean settlePending;
+    private int lastSettledPosition = ViewFlow.INVALID_POSITION;
+    private int passedSwitches;
+
+    private final Runnable settle = new Runnable() {
+
+        @Override
+        public void run() {
+            if (flow.isScrolling()) {
+                flow.postDelayed(this, settleDelay);
+                return;
+            }
+            settlePending = false;
+            deliverSettled();
+        }
+    };
+
+    SwitchDispatcher(ViewFlow flow) {
+        this.flow = flow;
+    }
+
+    public void add(ViewFlow.ViewSwitchListener listener, boolean settledDelivery) {
+        if (size == listeners.length) {
+            ViewFlow.ViewSwitchListener[] newListeners = new ViewFlow.ViewSwitchListener[size * 2];
+            boolean[] newSettled = new boolean[size * 2];
+            System.arraycopy(listeners, 0, newListeners, 0, size);
+            System.arraycopy(settled, 0, newSettled, 0, size);
+            listeners = newListeners;
+            settled = newSettled;
+        }
+        listeners[size] = listener;
+        settled[size++] = settledDelivery;
+        if (settledDelivery) {
+            settledCount++;
+        }
+    }
+
+    public void remove(ViewFlow.ViewSwitchListener listener) {
+        for (int i = 0; i < size; i++) {
+            if (listeners[i] == listener) {
+                if (settled[i]) {
+                    settledCount--;
+                }
+                listeners[i] = null;
+                if (dispatchDepth > 0) {
+                    removedWhileDispatching = true;
+                } else {
+                    compact();
+                }
+                return;
+            }
+        }
+    }
+
+    public void setSettleDelay(int millis) {
+        settleDelay = Math.max(0, millis);
+    }
+
+    public int getSettleDelay() {
+        return settleDelay;
+    }
+
+    /**
+     * Notifies the immediate listeners and restarts the settle delay.
+     */
+    public void dispatch(View view, int position) {
+        dispatch(false, view, position);
+        if (settledCount > 0) {
+            passedSwitches++;
+            if (settlePending) {
+                flow.removeCallbacks(settle);
+            }
+            settlePending = true;
+            flow.postDelayed(settle, settleDelay);
+        }
+    }
+
+    /**
+     * Drops a pending settled delivery, as when the flow leaves the window.
+     */
+    public void cancelSettle() {
+        if (settlePending) {
+            flow.removeCallbacks(settle);
+            settlePending = false;
+        }
+    }
+
+    private void deliverSettled() {
+        final int position = flow.getSelectedAdapterPosition();
+        if (position == ViewFlow.INVALID_POSITION) {
+            passedSwitches = 0;
+            return;
+        }
+        final int from = lastSettledPosition;
+        final int switches = passedSwitches;
+        lastSettledPosition = position;
+        passedSwitches = 0;
+
+        dispatchDepth++;
+        final int count = size;
+        for (int i = 0; i < count; i++) {
+            if (settled[i] && listeners[i] instanceof ViewFlow.PagesPassedListener
+                    && switches > 1 && from != ViewFlow.INVALID_POSITION) {
+                ((ViewFlow.PagesPassedListener) listeners[i]).onPagesPassed(from, position,
+                        switches - 1);
+            }
+        }
+        endDispatch();
+        dispatch(true, flow.getSelectedView(), position);
+    }
+
+    private void dispatch(boolean settledDelivery, View view, int position) {
+        dispatchDepth++;
+        final int count = size;
+        for (int i = 0; i < count; i++) {
+            if (listeners[i] != null && settled[i] == settledDelivery) {
+                listeners[i].onSwitched(view, position);
+            }
+        }
+        endDispatch();
+    }
+
+    private void endDispatch() {
+        if (--dispatchDepth == 0 && removedWhileDispatching) {
+            removedWhileDispatching = false;
+            compact();
+        }
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (listeners[i] != null) {
+                listeners[kept] = listeners[i];
+                settled[kept++] = settled[i];
+            }
+        }
+        for (int i = kept; i < size; i++) {
+            listeners[i] = null;
+        }
+        size = kept;
+    }
+}
@@ -1,22 +1,25 @@
 package pageview;
 
 import android.content.Context;
-import android.content.res.Configuration;
 import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
-import android.view.ViewTreeObserver.OnGlobalLayoutListener;
-import android.widget.AbsListView;
+import android.view.ViewGroup;
+import android.view.ViewParent;
 import android.widget.Adapter;
 import android.widget.AdapterView;
-import android.widget.Scroller;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.concurrent.Executor;
 
 /**
  * A horizontally scrollable {@link android.view.ViewGroup} with items populated from an
@@ -29,51 +32,163 @@ import java.util.LinkedList;
 public class ViewFlow extends AdapterView<Adapter> {
 
 	private static final int SNAP_VELOCITY = 1000;
+	private static final int FLING_PAGE_VELOCITY = 2000;
+	private static final int ANIMATION_FRAME_DELAY = 10;
 	private static final int INVALID_SCREEN = -1;
-	private final static int TOUCH_STATE_REST = 0;
-	private final static int TOUCH_STATE_SCROLLING = 1;
 
-	private LinkedList<View> loadedViews;
+	private PageBuffer<View> pageBuffer;
+	private PageWindow<View> loadedViews;
+	private RecycleBin<View> recycleBin;
+	private PageViewPool pageViewPool;
+	private AsyncPageBinder asyncBinder;
 	private int currentBufferIndex;
 	private int currentAdapterIndex;
+	private boolean circular;
 	private int sideBuffer = 2;
-	private Scroller scroller;
+	private BufferPolicy bufferPolicy;
+	private PageAnimator animator;
 	private VelocityTracker velocityTracker;
-	private int touchState = TOUCH_STATE_REST;
-	private float lastMotionX;
-	private int touchSlop;
+	private PageGestureEngine gestureEngine;
+	private long gestureDownTime;
 	private int maximumVelocity;
 	private int currentScreen;
 	private int nextScreen = INVALID_SCREEN;
 	private boolean firstLayout = true;
+	private boolean bindPending;
+	private boolean switchPending;
+	private int restoredPosition = INVALID_POSITION;
+	private int childWidthMeasureSpec;
+	private int childHeightMeasureSpec;
 	private ViewSwitchListener viewSwitchListener;
+	private SwitchDispatcher switchDispatcher;
 	private Adapter adapter;
-	private int lastScrollDirection;
+	private int lastFlingVelocity;
+	private int maxFlingPages = 1;
+	private Drawable pagePlaceholder;
+	private PageSnapshotCache snapshotCache;
+	private boolean quickRejectPages;
 	private AdapterDataSetObserver dataSetObserver;
 	private FlowIndicator indicator;
-
-	private OnGlobalLayoutListener orientationChangeListener = new OnGlobalLayoutListener() {
-
-		@Override
-		public void onGlobalLayout() {
-			getViewTreeObserver().removeGlobalOnLayoutListener(
-					orientationChangeListener);
-			setSelection(currentAdapterIndex);
-		}
-	};
+	private MetricsListener metricsListener;
+	private FrameTracker frameTracker;
+	private PageLifecycleListener pageLifecycleListener;
+	private PrefetchListener prefetchListener;
+	private int prefetchDistance;
+	private int prefetchFirst;
+	private int prefetchLast = -1;
+	private View visiblePage;
+	private int bindCount;
 
     public boolean canGoBack() {
-        return currentAdapterIndex != 0;
+        return isCircular() || currentAdapterIndex != 0;
     }
 
     public boolean canGoForward() {
-        return currentAdapterIndex != adapter.getCount() - 1;
+        return isCircular() || currentAdapterIndex != adapter.getCount() - 1;
     }
 
     public static interface ViewSwitchListener {
 		void onSwitched(View view, int position);
 	}
 
+	/**
+	 * Optional interface of settled {@link ViewSwitchListener}s. Before a settled
+	 * delivery, they are told about the switches that were coalesced into it.
+	 */
+	public static interface PagesPassedListener {
+		/**
+		 * @param fromPosition     the position of the previous settled delivery
+		 * @param toPosition       the position about to be delivered
+		 * @param skippedSwitches  how many switches in between were not delivered
+		 */
+		void onPagesPassed(int fromPosition, int toPosition, int skippedSwitches);
+	}
+
+	/**
+	 * Follows pages through the buffer, so adapters can acquire page resources late
+	 * and release them early. Positions are adapter positions.
+	 */
+	public static interface PageLifecycleListener {
+		/**
+		 * The page was bound and added to the buffer.
+		 */
+		void onPageEntered(int position, View view);
+
+		/**
+		 * The page became the current page.
+		 */
+		void onPageVisible(int position, View view);
+
+		/**
+		 * The page stopped being the current page.
+		 */
+		void onPageHidden(int position, View view);
+
+		/**
+		 * The page left the buffer; its view is about to be recycled.
+		 */
+		void onPageEvicted(int position, View view);
+	}
+
+	/**
+	 * Receives the positions within the prefetch distance beyond either end of the
+	 * buffer, for loading their data before any view is bound.
+	 */
+	public static interface PrefetchListener {
+		/**
+		 * The position came within the prefetch distance and is not buffered.
+		 */
+		void onPrefetch(int position);
+
+		/**
+		 * The position moved beyond the prefetch distance; data prefetched for it
+		 * can be dropped.
+		 */
+		void onPrefetchReleased(int position);
+	}
+
+	/**
+	 * Receives paging and recycling measurements. All callbacks happen on the UI
+	 * thread with primitive arguments, so implementations can aggregate them without
+	 * allocating.
+	 *
+	 * @see FlowMetrics
+	 */
+	public static interface MetricsListener {
+		/**
+		 * @param bindNanos time spent in {@code Adapter.getView}
+		 * @param recycled  whether the adapter reused the convert view
+		 */
+		void onPageBound(int position, long bindNanos, boolean recycled);
+
+		void onBufferChanged(int bufferedPages);
+
+		void onMeasurePass(int childCount);
+
+		void onLayoutPass(int childCount);
+
+		/**
+		 * Called when a shifted buffer is laid out without a layout pass.
+		 *
+		 * @param measuredChildren children that entered the buffer, measured and laid out
+		 * @param offsetChildren   children moved to their new slot by offset
+		 */
+		void onOffsetLayout(int measuredChildren, int offsetChildren);
+
+		/**
+		 * Called for every invalidation of the ViewFlow itself.
+		 */
+		void onInvalidate();
+
+		void onSwitched(int position);
+
+		/**
+		 * @param reboundPages pages bound through {@code getView} while handling a data
+		 *                     set change
+		 */
+		void onDataSetRebuilt(int reboundPages, int bufferedPages);
+	}
+
 	public ViewFlow(Context context) {
 		super(context);
 		sideBuffer = 3;
@@ -91,31 +206,341 @@ public class ViewFlow extends AdapterView<Adapter> {
 		init();
 	}
 
+    /**
+     * Animates to the next page. Repeated calls are queued onto the running snap.
+     */
     public void switchForward() {
-        if (canGoForward())
-            setSelection(currentAdapterIndex + 1);
+        navigateBy(1);
     }
 
     public void switchBack() {
-        if (canGoBack())
-            setSelection(currentAdapterIndex -1);
+        navigateBy(-1);
     }
 
+	/**
+	 * Selects the page at {@code position}, animating to it if {@code animate} is set.
+	 * Animated selections are queued like {@link #switchForward()}.
+	 */
+	public void setSelection(int position, boolean animate) {
+		if (!animate) {
+			setSelection(position);
+			return;
+		}
+		if (adapter == null || position < 0 || position >= adapter.getCount())
+			return;
+
+		final int base = getNavigationTarget();
+		navigateBy(isCircular() ? getShortestDelta(toAdapterPosition(base), position)
+				: position - base);
+	}
+
+	/**
+	 * Moves the navigation target by {@code pages} and snaps towards it through the
+	 * same path as a swipe. A snap already running is retargeted, so a burst of moves
+	 * collapses into one snap and only the window it lands on is bound.
+	 */
+	private void navigateBy(int pages) {
+		if (adapter == null || adapter.getCount() == 0 || pages == 0)
+			return;
+		// The finger is in control, the drag ends with a snap of its own
+		if (gestureEngine.isDragging())
+			return;
+
+		if (bindPending || getWidth() == 0) {
+			final int position = Math.max(getMinPosition(),
+					Math.min(currentAdapterIndex + pages, getMaxPosition()));
+			setSelection(toAdapterPosition(position));
+			return;
+		}
+
+		final int base = getNavigationTarget();
+		final int target = Math.max(getMinPosition(),
+				Math.min(base + pages, getMaxPosition()));
+		if (target != base)
+			snapToScreen(target - loadedViews.getFirstPosition(), 0);
+	}
+
+	/**
+	 * @return the buffer position a running snap lands on, or the current one
+	 */
+	private int getNavigationTarget() {
+		return (nextScreen != INVALID_SCREEN ? loadedViews.getFirstPosition()
+				+ nextScreen : currentAdapterIndex);
+	}
+
+	/**
+	 * @return the shorter way round the circle from one adapter position to another
+	 */
+	private int getShortestDelta(int from, int to) {
+		final int count = adapter.getCount();
+		int delta = (to - from) % count;
+		if (delta < 0)
+			delta += count;
+		if (delta > count / 2)
+			delta -= count;
+		return delta;
+	}
+
+	/**
+	 * Makes the flow wrap around: the page after the last one is the first one again.
+	 * Positions reported to listeners and the indicator stay adapter positions, and
+	 * the buffer keeps its size whatever the adapter count. Takes effect for adapters
+	 * with at least two items.
+	 */
+	public void setCircular(boolean circular) {
+		if (this.circular == circular)
+			return;
+
+		final int position = (adapter != null ? getCurrentPosition() : 0);
+		this.circular = circular;
+		if (adapter == null || adapter.getCount() == 0)
+			return;
+
+		while (!loadedViews.isEmpty()) {
+			recycleView(loadedViews.removeFirst());
+		}
+		currentAdapterIndex = position;
+		refreshBuffer();
+	}
+
+	public boolean isCircular() {
+		return circular && adapter != null && adapter.getCount() > 1;
+	}
+
+	/**
+	 * Buffer positions are adapter positions, except in circular mode where they keep
+	 * counting past both ends of the adapter and are wrapped here.
+	 */
+	private int toAdapterPosition(int position) {
+		if (!isCircular())
+			return position;
+
+		final int count = adapter.getCount();
+		final int wrapped = position % count;
+		return wrapped < 0 ? wrapped + count : wrapped;
+	}
+
+	private int getCurrentPosition() {
+		return toAdapterPosition(currentAdapterIndex);
+	}
+
+	private int getMinPosition() {
+		return isCircular() ? Integer.MIN_VALUE / 2 : 0;
+	}
+
+	private int getMaxPosition() {
+		return isCircular() ? Integer.MAX_VALUE / 2 : adapter.getCount() - 1;
+	}
+
 
 	private void init() {
-		loadedViews = new LinkedList<View>();
-		scroller = new Scroller(getContext());
+		allocateBuffer(2 * sideBuffer + 1);
+		recycleBin = new RecycleBin<View>(loadedViews.capacity(),
+				new RecycleBin.OnDiscardListener<View>() {
+
+					@Override
+					public void onDiscard(View view) {
+						removeDetachedView(view, false);
+					}
+				});
+		switchDispatcher = new SwitchDispatcher(this);
+		animator = new SpringPageAnimator();
 		final ViewConfiguration configuration = ViewConfiguration
 				.get(getContext());
-		touchSlop = configuration.getScaledTouchSlop();
+		gestureEngine = new PageGestureEngine(gestureHost,
+				configuration.getScaledTouchSlop());
 		maximumVelocity = configuration.getScaledMaximumFlingVelocity();
 	}
 
+	private void allocateBuffer(int capacity) {
+		pageBuffer = new PageBuffer<View>(capacity, bufferHost);
+		loadedViews = pageBuffer.getWindow();
+	}
+
+	private final PageBuffer.Host<View> bufferHost = new PageBuffer.Host<View>() {
+
+		@Override
+		public int getMinPosition() {
+			return ViewFlow.this.getMinPosition();
+		}
+
+		@Override
+		public int getMaxPosition() {
+			return ViewFlow.this.getMaxPosition();
+		}
+
+		@Override
+		public int getBufferBefore() {
+			return ViewFlow.this.getBufferBefore();
+		}
+
+		@Override
+		public int getBufferAfter() {
+			return ViewFlow.this.getBufferAfter();
+		}
+
+		@Override
+		public int getItemCount() {
+			return adapter.getCount();
+		}
+
+		@Override
+		public int getItemViewType(int position) {
+			return adapter.getItemViewType(toAdapterPosition(position));
+		}
+
+		@Override
+		public long getItemId(int position) {
+			return adapter.getItemId(toAdapterPosition(position));
+		}
+
+		@Override
+		public int getViewType(View page) {
+			return ((LayoutParams) page.getLayoutParams()).viewType;
+		}
+
+		@Override
+		public long getItemId(View page) {
+			return ((LayoutParams) page.getLayoutParams()).itemId;
+		}
+
+		@Override
+		public View bind(int position, boolean addToEnd) {
+			return makeAndAddView(position, addToEnd);
+		}
+
+		@Override
+		public void recycle(View page) {
+			recycleView(page);
+		}
+
+		@Override
+		public void keep(View page, int position) {
+			final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+			position = toAdapterPosition(position);
+			final boolean moved = lp.position != position;
+			if (moved)
+				dispatchPageEvicted(page);
+			detachViewFromParent(page);
+			setupChild(page, position, true, true, lp.viewType, lp.itemId);
+			if (moved)
+				dispatchPageEntered(page);
+			// The page may have moved, prepare it again for its new position
+			if (asyncBinder != null && asyncBinder.cancel(page))
+				asyncBinder.bind((AsyncPageAdapter) adapter, position, page);
+		}
+	};
+
+	/**
+	 * Sets the policy deciding how many pages are kept loaded on each side of the
+	 * current page, or {@code null} to keep {@code sideBuffer} pages on both sides.
+	 *
+	 * @see AdaptiveBufferPolicy
+	 */
+	public void setBufferPolicy(BufferPolicy policy) {
+		bufferPolicy = policy;
+		final int capacity = (policy != null ? policy.getMaxBufferSize()
+				: 2 * sideBuffer + 1);
+		if (capacity != loadedViews.capacity()) {
+			while (!loadedViews.isEmpty()) {
+				recycleView(loadedViews.removeFirst());
+			}
+			allocateBuffer(capacity);
+		}
+		refreshBuffer();
+	}
+
+	public BufferPolicy getBufferPolicy() {
+		return bufferPolicy;
+	}
+
+	/**
+	 * Forwards a {@code ComponentCallbacks2} trim level to the buffer policy and
+	 * releases pages it no longer wants to keep.
+	 */
+	public void onTrimMemory(int level) {
+		if (bufferPolicy != null) {
+			bufferPolicy.onTrimMemory(level);
+			refreshBuffer();
+		}
+	}
+
+	public void onLowMemory() {
+		if (bufferPolicy != null) {
+			bufferPolicy.onLowMemory();
+			refreshBuffer();
+		}
+	}
+
+	private void refreshBuffer() {
+		if (bindPending || adapter == null || adapter.getCount() == 0)
+			return;
+
+		reconcileWindow(currentAdapterIndex);
+		currentBufferIndex = loadedViews.indexOfPosition(currentAdapterIndex);
+		if (!relayoutByOffset())
+			requestLayout();
+		setVisibleView(currentBufferIndex, true);
+	}
+
+	private int getBufferBefore() {
+		if (bufferPolicy == null)
+			return sideBuffer;
+		return Math.max(0, Math.min(bufferPolicy.getBufferBefore(),
+				loadedViews.capacity() - 1));
+	}
+
+	private int getBufferAfter() {
+		if (bufferPolicy == null)
+			return sideBuffer;
+		return Math.max(0, Math.min(bufferPolicy.getBufferAfter(),
+				loadedViews.capacity() - 1 - getBufferBefore()));
+	}
+
+	/**
+	 * Rotations and window resizes keep the bound pages: the layout pass that follows
+	 * re-measures them, only the scroll offset has to move to the new page width.
+	 */
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		if (w == oldw)
+			return;
+
+		// A snap in progress lands and completes its switch right away
+		final int screen = (nextScreen != INVALID_SCREEN ? nextScreen
+				: currentScreen);
+		animator.stop();
+		scrollTo(screen * w, 0);
+		if (nextScreen != INVALID_SCREEN)
+			finishSnap();
+		if (snapshotCache != null)
+			snapshotCache.invalidateAll();
+	}
+
 	@Override
-	protected void onConfigurationChanged(Configuration newConfig) {
-		super.onConfigurationChanged(newConfig);
-		getViewTreeObserver().addOnGlobalLayoutListener(
-				orientationChangeListener);
+	public Parcelable onSaveInstanceState() {
+		SavedState ss = new SavedState(super.onSaveInstanceState());
+		ss.position = (adapter != null && adapter.getCount() > 0 ? getCurrentPosition()
+				: restoredPosition);
+		return ss;
+	}
+
+	@Override
+	public void onRestoreInstanceState(Parcelable state) {
+		if (!(state instanceof SavedState)) {
+			super.onRestoreInstanceState(state);
+			return;
+		}
+		SavedState ss = (SavedState) state;
+		super.onRestoreInstanceState(ss.getSuperState());
+		if (ss.position == INVALID_POSITION)
+			return;
+
+		if (adapter == null || adapter.getCount() == 0)
+			restoredPosition = ss.position;
+		else
+			setSelection(Math.min(ss.position, adapter.getCount() - 1));
 	}
 
 	public int getViewsCount() {
@@ -139,11 +564,21 @@ public class ViewFlow extends AdapterView<Adapter> {
 					"ViewFlow can only be used in EXACTLY mode.");
 		}
 
+		if (bindPending) {
+			bindPending = false;
+			bindSelection();
+		}
+
 		// The children are given the same width and height as the workspace
 		final int count = getChildCount();
+		if (metricsListener != null)
+			metricsListener.onMeasurePass(count);
+
 		for (int i = 0; i < count; i++) {
 			getChildAt(i).measure(widthMeasureSpec, heightMeasureSpec);
 		}
+		childWidthMeasureSpec = widthMeasureSpec;
+		childHeightMeasureSpec = heightMeasureSpec;
 
 		if (firstLayout) {
 			scrollTo(currentScreen * width, 0);
@@ -151,8 +586,20 @@ public class ViewFlow extends AdapterView<Adapter> {
 		}
 	}
 
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		if (metricsListener != null)
+			metricsListener.onInvalidate();
+		if (frameTracker != null)
+			frameTracker.onFrameRequested();
+	}
+
 	@Override
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		if (metricsListener != null)
+			metricsListener.onLayoutPass(getChildCount());
+
 		int childLeft = 0;
 
 		final int count = getChildCount();
@@ -165,6 +612,49 @@ public class ViewFlow extends AdapterView<Adapter> {
 				childLeft += childWidth;
 			}
 		}
+		scheduleSnapshotCapture();
+		if (switchPending) {
+			removeCallbacks(dispatchPendingSwitch);
+			post(dispatchPendingSwitch);
+		}
+	}
+
+	/**
+	 * Lays out the buffer after it shifted without a full layout pass: only children
+	 * that still need a layout, i.e. the ones that just entered the buffer, are measured
+	 * and laid out; the others are moved to their new slot by offset. The caller moves
+	 * the scroll origin before the next frame is drawn, so nothing visibly jumps.
+	 *
+	 * @return false if a full layout pass is needed instead
+	 */
+	private boolean relayoutByOffset() {
+		if (firstLayout || isLayoutRequested() || getWidth() == 0)
+			return false;
+
+		int childLeft = 0;
+		int measured = 0;
+		int offset = 0;
+		final int count = getChildCount();
+		for (int i = 0; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child.getVisibility() == View.GONE)
+				continue;
+
+			if (child.isLayoutRequested()) {
+				child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+				child.layout(childLeft, 0,
+						childLeft + child.getMeasuredWidth(),
+						child.getMeasuredHeight());
+				measured++;
+			} else if (child.getLeft() != childLeft) {
+				child.offsetLeftAndRight(childLeft - child.getLeft());
+				offset++;
+			}
+			childLeft += child.getMeasuredWidth();
+		}
+		if (metricsListener != null)
+			metricsListener.onOffsetLayout(measured, offset);
+		return true;
 	}
 
 	@Override
@@ -172,225 +662,499 @@ public class ViewFlow extends AdapterView<Adapter> {
 		if (getChildCount() == 0)
 			return false;
 
+		return handleTouchEvent(ev);
+	}
+
+	@Override
+	public boolean onTouchEvent(MotionEvent ev) {
+		if (getChildCount() == 0)
+			return false;
+
+		handleTouchEvent(ev);
+		return true;
+	}
+
+	/**
+	 * Feeds a touch event to the gesture engine. Historical samples of the active
+	 * pointer are replayed first and the whole batch is applied as one scroll.
+	 *
+	 * @return whether a drag is in progress
+	 */
+	private boolean handleTouchEvent(MotionEvent ev) {
+		final int action = ev.getAction();
+
+		// onTouchEvent gets the down onInterceptTouchEvent has already seen
+		if ((action & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_DOWN
+				&& gestureEngine.getActivePointerId() != PageGestureEngine.INVALID_POINTER
+				&& ev.getDownTime() == gestureDownTime)
+			return gestureEngine.isDragging();
+
 		if (velocityTracker == null) {
 			velocityTracker = VelocityTracker.obtain();
 		}
 		velocityTracker.addMovement(ev);
 
-		final int action = ev.getAction();
-		final float x = ev.getX();
-
-		switch (action) {
+		switch (action & MotionEvent.ACTION_MASK) {
 		case MotionEvent.ACTION_DOWN:
-			if (!scroller.isFinished()) {
-				scroller.abortAnimation();
+			final boolean animating = animator.isRunning();
+			if (animating) {
+				// Caught mid-snap: the drag takes over and ends with a snap of its own
+				animator.stop();
+				nextScreen = INVALID_SCREEN;
 			}
-
-			lastMotionX = x;
-
-			touchState = scroller.isFinished() ? TOUCH_STATE_REST
-					: TOUCH_STATE_SCROLLING;
-
+			if (frameTracker != null)
+				frameTracker.begin();
+			gestureDownTime = ev.getDownTime();
+			gestureEngine.down(ev.getPointerId(0), ev.getX(), animating);
 			break;
 
-		case MotionEvent.ACTION_MOVE:
-			final int xDiff = (int) Math.abs(x - lastMotionX);
+		case MotionEvent.ACTION_POINTER_DOWN: {
+			final int index = getPointerIndex(action);
+			gestureEngine.pointerDown(ev.getPointerId(index), ev.getX(index));
+			break;
+		}
 
-			boolean xMoved = xDiff > touchSlop;
+		case MotionEvent.ACTION_MOVE: {
+			final int index = ev.findPointerIndex(gestureEngine
+					.getActivePointerId());
+			if (index < 0)
+				break;
 
-			if (xMoved) {
-				touchState = TOUCH_STATE_SCROLLING;
+			final int historySize = ev.getHistorySize();
+			for (int h = 0; h < historySize; h++) {
+				gestureEngine.move(ev.getHistoricalX(index, h));
 			}
+			gestureEngine.move(ev.getX(index));
+			gestureEngine.flush();
+			break;
+		}
 
-			if (touchState == TOUCH_STATE_SCROLLING) {
-				final int deltaX = (int) (lastMotionX - x);
-				lastMotionX = x;
-
-				final int scrollX = getScrollX();
-				if (deltaX < 0) {
-					if (scrollX > 0) {
-						scrollBy(Math.max(-scrollX, deltaX), 0);
-					}
-				} else if (deltaX > 0) {
-					final int availableToScroll = getChildAt(
-							getChildCount() - 1).getRight()
-							- scrollX - getWidth();
-					if (availableToScroll > 0) {
-						scrollBy(Math.min(availableToScroll, deltaX), 0);
-					}
-				}
-				return true;
+		case MotionEvent.ACTION_POINTER_UP: {
+			final int index = getPointerIndex(action);
+			if (ev.getPointerId(index) == gestureEngine.getActivePointerId()) {
+				final int newIndex = (index == 0 ? 1 : 0);
+				gestureEngine.activePointerUp(ev.getPointerId(newIndex),
+						ev.getX(newIndex));
 			}
 			break;
+		}
 
 		case MotionEvent.ACTION_UP:
-			if (touchState == TOUCH_STATE_SCROLLING) {
-				final VelocityTracker velocityTracker = this.velocityTracker;
+			if (gestureEngine.isDragging()) {
 				velocityTracker.computeCurrentVelocity(1000, maximumVelocity);
-				int velocityX = (int) velocityTracker.getXVelocity();
-
-				if (velocityX > SNAP_VELOCITY && currentScreen > 0) {
-					snapToScreen(currentScreen - 1);
-				} else if (velocityX < -SNAP_VELOCITY
-						&& currentScreen < getChildCount() - 1) {
-					snapToScreen(currentScreen + 1);
-				} else {
-					snapToDestination();
-				}
-
-				if (this.velocityTracker != null) {
-					this.velocityTracker.recycle();
-					this.velocityTracker = null;
-				}
+				gestureEngine.up(velocityTracker.getXVelocity(gestureEngine
+						.getActivePointerId()));
+			} else {
+				gestureEngine.up(0);
 			}
-
-			touchState = TOUCH_STATE_REST;
-
+			releaseVelocityTracker();
+			settleBetweenPages();
+			endFrameTracking();
 			break;
+
 		case MotionEvent.ACTION_CANCEL:
-			touchState = TOUCH_STATE_REST;
+			gestureEngine.cancel();
+			releaseVelocityTracker();
+			settleBetweenPages();
+			endFrameTracking();
+			break;
 		}
-		return false;
+		return gestureEngine.isDragging();
 	}
 
-	@Override
-	public boolean onTouchEvent(MotionEvent ev) {
-		if (getChildCount() == 0)
-			return false;
-
-		if (velocityTracker == null) {
-			velocityTracker = VelocityTracker.obtain();
-		}
-		velocityTracker.addMovement(ev);
-
-		final int action = ev.getAction();
-		final float x = ev.getX();
-
-		switch (action) {
-		case MotionEvent.ACTION_DOWN:
-			if (!scroller.isFinished()) {
-				scroller.abortAnimation();
-			}
-
-			lastMotionX = x;
+	/**
+	 * Snaps to the nearest page when a touch ended without a snap of its own while
+	 * the offset rests between pages, as after a tap that caught a snap.
+	 */
+	private void settleBetweenPages() {
+		if (animator.isRunning() || nextScreen != INVALID_SCREEN
+				|| getWidth() == 0)
+			return;
+		if (getScrollX() != currentScreen * getWidth())
+			snapToDestination(0);
+	}
 
-			touchState = scroller.isFinished() ? TOUCH_STATE_REST
-					: TOUCH_STATE_SCROLLING;
+	/**
+	 * Ends the tracked gesture when the touch did not start a snap; otherwise it ends
+	 * when the snap completes.
+	 */
+	private void endFrameTracking() {
+		if (frameTracker != null && nextScreen == INVALID_SCREEN
+				&& !animator.isRunning())
+			frameTracker.end();
+	}
 
-			break;
+	@SuppressWarnings("deprecation")
+	private static int getPointerIndex(int action) {
+		// ACTION_POINTER_INDEX_MASK is not available on every supported version
+		return (action & MotionEvent.ACTION_POINTER_ID_MASK) >> MotionEvent.ACTION_POINTER_ID_SHIFT;
+	}
 
-		case MotionEvent.ACTION_MOVE:
-			final int xDiff = (int) Math.abs(x - lastMotionX);
+	private void releaseVelocityTracker() {
+		if (velocityTracker != null) {
+			velocityTracker.recycle();
+			velocityTracker = null;
+		}
+	}
 
-			boolean xMoved = xDiff > touchSlop;
+	private final PageGestureEngine.Host gestureHost = new PageGestureEngine.Host() {
 
-			if (xMoved) {
-				touchState = TOUCH_STATE_SCROLLING;
-			}
+		@Override
+		public int getScrollX() {
+			return ViewFlow.this.getScrollX();
+		}
 
-			if (touchState == TOUCH_STATE_SCROLLING) {
-				final int deltaX = (int) (lastMotionX - x);
-				lastMotionX = x;
+		@Override
+		public int getMinScrollX() {
+			return toScrollX(getMinPosition());
+		}
 
-				final int scrollX = getScrollX();
-				if (deltaX < 0) {
-					if (scrollX > 0) {
-						scrollBy(Math.max(-scrollX, deltaX), 0);
-					}
-				} else if (deltaX > 0) {
-					final int availableToScroll = getChildAt(
-							getChildCount() - 1).getRight()
-							- scrollX - getWidth();
-					if (availableToScroll > 0) {
-						scrollBy(Math.min(availableToScroll, deltaX), 0);
-					}
-				}
-				return true;
-			}
-			break;
+		@Override
+		public int getMaxScrollX() {
+			return toScrollX(getMaxPosition());
+		}
 
-		case MotionEvent.ACTION_UP:
-			if (touchState == TOUCH_STATE_SCROLLING) {
-				final VelocityTracker velocityTracker = this.velocityTracker;
-				velocityTracker.computeCurrentVelocity(1000, maximumVelocity);
-				int velocityX = (int) velocityTracker.getXVelocity();
-
-				if (velocityX > SNAP_VELOCITY && currentScreen > 0) {
-					snapToScreen(currentScreen - 1);
-				} else if (velocityX < -SNAP_VELOCITY
-						&& currentScreen < getChildCount() - 1) {
-					snapToScreen(currentScreen + 1);
-				} else {
-					snapToDestination();
-				}
+		@Override
+		public void scrollBy(int dx) {
+			ViewFlow.this.scrollBy(dx, 0);
+		}
 
-				if (this.velocityTracker != null) {
-					this.velocityTracker.recycle();
-					this.velocityTracker = null;
-				}
+		@Override
+		public void onRelease(float velocity) {
+			final int velocityX = (int) velocity;
+			lastFlingVelocity = Math.abs(velocityX);
+
+			// The finger moves opposite to the scroll offset
+			if (velocityX > SNAP_VELOCITY && canGoBack()) {
+				snapToScreen(currentScreen - getFlingPageCount(velocityX), -velocity);
+			} else if (velocityX < -SNAP_VELOCITY && canGoForward()) {
+				snapToScreen(currentScreen + getFlingPageCount(velocityX), -velocity);
+			} else {
+				snapToDestination(-velocity);
 			}
-
-			touchState = TOUCH_STATE_REST;
-
-			break;
-		case MotionEvent.ACTION_CANCEL:
-			touchState = TOUCH_STATE_REST;
 		}
-		return true;
-	}
+	};
 
 	@Override
 	protected void onScrollChanged(int h, int v, int oldh, int oldv) {
 		super.onScrollChanged(h, v, oldh, oldv);
 		if (indicator != null) {
-			int hPerceived = h + (currentAdapterIndex - currentBufferIndex)
-					* getWidth();
+			int hPerceived = h + loadedViews.getFirstPosition() * getWidth();
+			if (isCircular()) {
+				final long span = (long) adapter.getCount() * getWidth();
+				final long wrapped = ((long) h + (long) loadedViews
+						.getFirstPosition() * getWidth()) % span;
+				hPerceived = (int) (wrapped < 0 ? wrapped + span : wrapped);
+			}
 			indicator.onScrolled(hPerceived, v, oldh, oldv);
 		}
 	}
 
-	private void snapToDestination() {
+	/**
+	 * @return the scroll offset of a buffer position, which may lie outside the buffer
+	 */
+	private int toScrollX(int position) {
+		final long scrollX = (long) (position - loadedViews.getFirstPosition())
+				* getWidth();
+		return (int) Math.max(Integer.MIN_VALUE,
+				Math.min(scrollX, Integer.MAX_VALUE));
+	}
+
+	private void snapToDestination(float velocity) {
 		final int screenWidth = getWidth();
-		final int whichScreen = (getScrollX() + (screenWidth / 2))
-				/ screenWidth;
+		// Offsets left of the buffer are negative after a multi-page fling
+		final int whichScreen = floorDiv(getScrollX() + screenWidth / 2,
+				screenWidth);
 
-		snapToScreen(whichScreen);
+		snapToScreen(whichScreen, velocity);
 	}
 
-	private void snapToScreen(int whichScreen) {
-		lastScrollDirection = whichScreen - currentScreen;
-		if (!scroller.isFinished())
-			return;
+	private int getFlingPageCount(int velocityX) {
+		if (maxFlingPages <= 1)
+			return 1;
+		final int pages = 1 + (Math.abs(velocityX) - SNAP_VELOCITY)
+				/ FLING_PAGE_VELOCITY;
+		return Math.max(1, Math.min(pages, maxFlingPages));
+	}
 
-		whichScreen = Math.max(0, Math.min(whichScreen, getChildCount() - 1));
+	/**
+	 * Screens are slots of the buffer, counted from its first page. A screen outside
+	 * the buffer stands for a page that is not loaded; the flow scrolls over it showing
+	 * the page placeholder and binds only the window it lands on.
+	 * <p>
+	 * A snap already running is retargeted and keeps its motion.
+	 *
+	 * @param velocity pixels per second the scroll offset moves at when the snap starts
+	 */
+	private void snapToScreen(int whichScreen, float velocity) {
+		final int firstPosition = loadedViews.getFirstPosition();
+		whichScreen = Math.max(getMinPosition() - firstPosition,
+				Math.min(whichScreen, getMaxPosition() - firstPosition));
 
 		nextScreen = whichScreen;
 
 		final int newX = whichScreen * getWidth();
-		final int delta = newX - getScrollX();
-		scroller.startScroll(getScrollX(), 0, delta, 0, Math.abs(delta) * 2);
-		invalidate();
+		if (animator.isRunning()) {
+			animator.retarget(newX);
+		} else {
+			animator.start(getScrollX(), velocity, newX,
+					SystemClock.uptimeMillis());
+		}
+		stepAnimation();
+	}
+
+	/**
+	 * Sets the animator of snaps, a {@link SpringPageAnimator} by default.
+	 */
+	public void setPageAnimator(PageAnimator pageAnimator) {
+		if (animator.isRunning()) {
+			pageAnimator.start(animator.getOffset(), 0, animator.getTarget(),
+					SystemClock.uptimeMillis());
+			animator.stop();
+		}
+		animator = pageAnimator;
 	}
 
 	@Override
 	public void computeScroll() {
-		if (scroller.computeScrollOffset()) {
-			scrollTo(scroller.getCurrX(), scroller.getCurrY());
-			postInvalidate();
-		} else if (nextScreen != INVALID_SCREEN) {
-			currentScreen = Math.max(0,
-					Math.min(nextScreen, getChildCount() - 1));
-			nextScreen = INVALID_SCREEN;
-			postViewSwitched(lastScrollDirection);
+		if (animator.isRunning())
+			stepAnimation();
+	}
+
+	/**
+	 * Advances the snap animation. Frames are driven by drawing: moving the offset
+	 * invalidates the flow and the next draw steps again. While the offset does not
+	 * move, nothing is invalidated and the next step is posted instead.
+	 */
+	private void stepAnimation() {
+		removeCallbacks(animationFrame);
+		final boolean running = animator.step(SystemClock.uptimeMillis());
+		final int offset = animator.getOffset();
+		if (offset != getScrollX())
+			scrollTo(offset, 0);
+		else if (running)
+			postDelayed(animationFrame, ANIMATION_FRAME_DELAY);
+
+		if (!running && nextScreen != INVALID_SCREEN)
+			finishSnap();
+	}
+
+	/**
+	 * Switches to the page the snap was heading for and ends the tracked gesture.
+	 */
+	private void finishSnap() {
+		final int screen = nextScreen;
+		nextScreen = INVALID_SCREEN;
+		postViewSwitched(screen);
+		if (frameTracker != null)
+			frameTracker.end();
+	}
+
+	private final Runnable animationFrame = new Runnable() {
+
+		@Override
+		public void run() {
+			if (animator.isRunning())
+				stepAnimation();
+		}
+	};
+
+	/**
+	 * Sets how many pages a single fling may travel, proportionally to its velocity.
+	 * Defaults to 1. Pages passed on the way are never bound, they show the
+	 * {@link #setPagePlaceholder(Drawable) page placeholder}.
+	 */
+	public void setMaxFlingPages(int maxFlingPages) {
+		this.maxFlingPages = Math.max(1, maxFlingPages);
+	}
+
+	/**
+	 * Sets the drawable shown in place of pages that are scrolled over without being
+	 * loaded, or {@code null} to leave them empty.
+	 */
+	public void setPagePlaceholder(Drawable placeholder) {
+		pagePlaceholder = placeholder;
+		invalidate();
+	}
+
+	/**
+	 * Keeps bitmap snapshots of the pages next to the current one, up to
+	 * {@code maxBytes} including the bitmaps pooled for reuse. While the flow is
+	 * dragged or animating, snapshots are drawn instead of the live page
+	 * hierarchies, and pages scrolled over without being loaded show their snapshot
+	 * if there is one. 0 disables snapshots, the default.
+	 * Snapshots are dropped on data set changes; use {@link #invalidateSnapshot(int)}
+	 * when a page changes on its own.
+	 */
+	public void setSnapshotCacheSize(int maxBytes) {
+		if (maxBytes <= 0) {
+			if (snapshotCache != null) {
+				snapshotCache.clear();
+				snapshotCache = null;
+			}
+			return;
+		}
+		if (snapshotCache == null)
+			snapshotCache = new PageSnapshotCache(maxBytes);
+		else
+			snapshotCache.setMaxBytes(maxBytes);
+		scheduleSnapshotCapture();
+	}
+
+	public void invalidateSnapshot(int position) {
+		if (snapshotCache != null) {
+			snapshotCache.invalidate(position);
+			scheduleSnapshotCapture();
+		}
+	}
+
+	public void invalidateSnapshots() {
+		if (snapshotCache != null) {
+			snapshotCache.invalidateAll();
+			scheduleSnapshotCapture();
+		}
+	}
+
+	private final Runnable captureSnapshots = new Runnable() {
+
+		@Override
+		public void run() {
+			captureSnapshots();
+		}
+	};
+
+	private void scheduleSnapshotCapture() {
+		if (snapshotCache != null) {
+			removeCallbacks(captureSnapshots);
+			post(captureSnapshots);
+		}
+	}
+
+	/**
+	 * Renders the pages next to the current one once the flow has settled.
+	 */
+	private void captureSnapshots() {
+		if (snapshotCache == null || isScrolling() || isLayoutRequested())
+			return;
+
+		for (int position = currentAdapterIndex - 1; position <= currentAdapterIndex + 1; position += 2) {
+			final View page = loadedViews.getAtPosition(position);
+			if (page != null && page.getVisibility() != View.GONE)
+				snapshotCache.capture(toAdapterPosition(position), page);
+		}
+	}
+
+	boolean isScrolling() {
+		return gestureEngine.isDragging() || animator.isRunning();
+	}
+
+	/**
+	 * Draws only the pages intersecting the scroll window, one or two of the buffered
+	 * pages; the others are skipped before their hierarchy is traversed. Pages of the
+	 * window scrolling by are drawn from their snapshot if there is one.
+	 */
+	@Override
+	protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+		final int left = getScrollX();
+		if (child.getAnimation() == null
+				&& (child.getRight() <= left || child.getLeft() >= left + getWidth()))
+			return false;
+		if (quickRejectPages
+				&& canvas.quickReject(child.getLeft(), child.getTop(),
+						child.getRight(), child.getBottom(), Canvas.EdgeType.BW))
+			return false;
+		if (snapshotCache != null && isScrolling() && child != getBoundSelectedView()) {
+			final int index = indexOfChild(child);
+			if (index >= 0 && snapshotCache.draw(canvas,
+					toAdapterPosition(loadedViews.getFirstPosition() + index),
+					child.getLeft(), child.getTop()))
+				return false;
+		}
+		return super.drawChild(canvas, child, drawingTime);
+	}
+
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		if (frameTracker != null)
+			frameTracker.onFrameDrawStarted();
+		super.dispatchDraw(canvas);
+		if (pagePlaceholder != null || snapshotCache != null)
+			drawPlaceholders(canvas);
+		if (frameTracker != null)
+			frameTracker.onFrameDrawn();
+	}
+
+	/**
+	 * Also skips pages the canvas clip does not reach, as when only something drawn
+	 * over the flow was invalidated. Worth it for deep page hierarchies. Off by default.
+	 */
+	public void setQuickRejectPages(boolean quickReject) {
+		quickRejectPages = quickReject;
+	}
+
+	/**
+	 * Drops invalidations of pages outside the scroll window before they travel up
+	 * the hierarchy; such pages are not drawn anyway.
+	 */
+	@Override
+	public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+		final int left = location[0] + dirty.left;
+		final int right = location[0] + dirty.right;
+		if (right <= getScrollX() || left >= getScrollX() + getWidth())
+			return null;
+		return super.invalidateChildInParent(location, dirty);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		removeCallbacks(captureSnapshots);
+		removeCallbacks(animationFrame);
+		// Still pending, it is posted again by the next layout
+		removeCallbacks(dispatchPendingSwitch);
+		switchDispatcher.cancelSettle();
+		if (snapshotCache != null)
+			snapshotCache.clear();
+	}
+
+	private void drawPlaceholders(Canvas canvas) {
+		final int width = getWidth();
+		if (width == 0 || adapter == null)
+			return;
+
+		final int scrollX = getScrollX();
+		final int firstPosition = loadedViews.getFirstPosition();
+		for (int screen = floorDiv(scrollX, width); screen * width < scrollX
+				+ width; screen++) {
+			final int position = firstPosition + screen;
+			if ((screen < 0 || screen >= getChildCount())
+					&& position >= getMinPosition()
+					&& position <= getMaxPosition()) {
+				final int left = screen * width;
+				if (snapshotCache != null
+						&& snapshotCache.draw(canvas,
+								toAdapterPosition(position), left, 0))
+					continue;
+				if (pagePlaceholder != null) {
+					pagePlaceholder.setBounds(left, 0, left + width, getHeight());
+					pagePlaceholder.draw(canvas);
+				}
+			}
 		}
 	}
 
+	private static int floorDiv(int x, int y) {
+		final int q = x / y;
+		return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+	}
+
 	private void setVisibleView(int indexInBuffer, boolean uiThread) {
 		currentScreen = Math.max(0,
 				Math.min(indexInBuffer, getChildCount() - 1));
-		int dx = (currentScreen * getWidth()) - scroller.getCurrX();
-		scroller.startScroll(scroller.getCurrX(), scroller.getCurrY(), dx,
-				0, 0);
+		// Jumping ends any snap, its target screen may not exist any more
+		animator.stop();
+		nextScreen = INVALID_SCREEN;
+		scrollTo(currentScreen * getWidth(), 0);
 		if (uiThread)
 			invalidate();
 		else
@@ -401,6 +1165,165 @@ public class ViewFlow extends AdapterView<Adapter> {
 		viewSwitchListener = l;
 	}
 
+	/**
+	 * Adds a listener that is notified of every switch as it happens.
+	 */
+	public void addViewSwitchListener(ViewSwitchListener l) {
+		switchDispatcher.add(l, false);
+	}
+
+	/**
+	 * Adds a listener that is notified of every switch, or, when {@code settled}, only
+	 * of the page the flow rests on once it stopped scrolling for the
+	 * {@link #setSwitchSettleDelay(int) settle delay}. Settled listeners implementing
+	 * {@link PagesPassedListener} learn about the switches they missed.
+	 */
+	public void addViewSwitchListener(ViewSwitchListener l, boolean settled) {
+		switchDispatcher.add(l, settled);
+	}
+
+	public void removeViewSwitchListener(ViewSwitchListener l) {
+		switchDispatcher.remove(l);
+	}
+
+	/**
+	 * Sets how long the flow must rest on a page before settled listeners are
+	 * notified. Defaults to 300 milliseconds.
+	 */
+	public void setSwitchSettleDelay(int millis) {
+		switchDispatcher.setSettleDelay(millis);
+	}
+
+	private void dispatchSwitched() {
+		switchPending = false;
+		final View view = getSelectedView();
+		final int position = getCurrentPosition();
+		if (indicator != null)
+			indicator.onSwitched(view, position);
+		if (viewSwitchListener != null)
+			viewSwitchListener.onSwitched(view, position);
+		switchDispatcher.dispatch(view, position);
+	}
+
+	/**
+	 * @return the adapter position of the current page, or {@code INVALID_POSITION}
+	 */
+	int getSelectedAdapterPosition() {
+		return (adapter != null && getBoundSelectedView() != null ? getCurrentPosition()
+				: INVALID_POSITION);
+	}
+
+	/**
+	 * Sets the listener receiving paging measurements, or {@code null} to stop
+	 * measuring. Nothing is timed while no listener is set.
+	 */
+	public void setMetricsListener(MetricsListener l) {
+		metricsListener = l;
+	}
+
+	/**
+	 * Sets the tracker measuring the frames of each gesture and the snap that follows
+	 * it, or {@code null} to stop tracking.
+	 */
+	public void setFrameTracker(FrameTracker tracker) {
+		if (frameTracker != null)
+			frameTracker.end();
+		frameTracker = tracker;
+	}
+
+	public void setPageLifecycleListener(PageLifecycleListener l) {
+		pageLifecycleListener = l;
+	}
+
+	/**
+	 * Sets the listener receiving the positions up to {@code distance} pages beyond
+	 * the buffer, or {@code null} to stop prefetching. Positions prefetched for the
+	 * previous listener are released first.
+	 */
+	public void setPrefetchListener(PrefetchListener l, int distance) {
+		prefetchDistance = 0;
+		updatePrefetchRange();
+		prefetchListener = l;
+		prefetchDistance = Math.max(0, distance);
+		updatePrefetchRange();
+	}
+
+	/**
+	 * Sets the executors used to bind pages of an {@link AsyncPageAdapter}:
+	 * {@link AsyncPageAdapter#preparePage(int)} runs on {@code backgroundExecutor},
+	 * {@link AsyncPageAdapter#bindPage(int, View, Object)} on {@code uiExecutor}. By
+	 * default pages are prepared on a shared low priority thread and bound through a
+	 * UI thread {@link Handler}. Work still pending on the previous executors is dropped.
+	 */
+	public void setPageBindExecutors(Executor backgroundExecutor,
+			Executor uiExecutor) {
+		if (asyncBinder != null)
+			asyncBinder.cancelAll();
+		asyncBinder = new AsyncPageBinder(backgroundExecutor, uiExecutor);
+		asyncBinder.setOnPageBoundListener(asyncPageBoundListener);
+	}
+
+	private final AsyncPageBinder.OnPageBoundListener asyncPageBoundListener = new AsyncPageBinder.OnPageBoundListener() {
+
+		@Override
+		public void onPageBound(int position, View view) {
+			if (snapshotCache != null) {
+				snapshotCache.invalidate(position);
+				scheduleSnapshotCapture();
+			}
+		}
+	};
+
+	private final PagedAdapter.OnItemsLoadedListener itemsLoadedListener = new PagedAdapter.OnItemsLoadedListener() {
+
+		@Override
+		public void onItemsLoaded(int start, int count) {
+			rebindPages(start, count);
+		}
+	};
+
+	private AsyncPageBinder getAsyncBinder() {
+		if (asyncBinder == null) {
+			final Handler handler = new Handler();
+			asyncBinder = new AsyncPageBinder(
+					AsyncPageBinder.getDefaultExecutor(), new Executor() {
+
+						@Override
+						public void execute(Runnable command) {
+							handler.post(command);
+						}
+					});
+			asyncBinder.setOnPageBoundListener(asyncPageBoundListener);
+		}
+		return asyncBinder;
+	}
+
+	/**
+	 * Sets how many detached views of each adapter view type are kept for reuse.
+	 * Defaults to the buffer size.
+	 */
+	public void setScrapCapacity(int capacity) {
+		recycleBin.setCapacity(capacity);
+	}
+
+	public void setScrapCapacity(int viewType, int capacity) {
+		recycleBin.setCapacity(viewType, capacity);
+	}
+
+	/**
+	 * Makes pages leaving the buffer go to a pool shared with other flows instead of
+	 * this flow's own scrap heap, and takes convert views from it. Pass {@code null}
+	 * to go back to the private scrap heap.
+	 */
+	public void setPageViewPool(PageViewPool pool) {
+		pageViewPool = pool;
+		recycleBin.clear();
+	}
+
+	public PageViewPool getPageViewPool() {
+		return pageViewPool;
+	}
+
 	@Override
 	public Adapter getAdapter() {
 		return adapter;
@@ -410,6 +1333,16 @@ public class ViewFlow extends AdapterView<Adapter> {
 	public void setAdapter(Adapter adapter) {
 		if (this.adapter != null) {
 			this.adapter.unregisterDataSetObserver(dataSetObserver);
+			if (this.adapter instanceof PagedAdapter)
+				((PagedAdapter<?>) this.adapter).setOnItemsLoadedListener(null);
+			// The old pages go to the scrap heap, or to the shared pool if one is set
+			while (!loadedViews.isEmpty()) {
+				recycleView(loadedViews.removeFirst());
+			}
+			final int distance = prefetchDistance;
+			prefetchDistance = 0;
+			updatePrefetchRange();
+			prefetchDistance = distance;
 		}
 
 		this.adapter = adapter;
@@ -417,31 +1350,94 @@ public class ViewFlow extends AdapterView<Adapter> {
 		if (this.adapter != null) {
 			dataSetObserver = new AdapterDataSetObserver();
 			this.adapter.registerDataSetObserver(dataSetObserver);
-
+			if (this.adapter instanceof PagedAdapter)
+				((PagedAdapter<?>) this.adapter)
+						.setOnItemsLoadedListener(itemsLoadedListener);
 		}
-		if (this.adapter.getCount() == 0)
+		loadedViews.reset(0);
+		removeAllViewsInLayout();
+		bindPending = false;
+		switchPending = false;
+		if (asyncBinder != null)
+			asyncBinder.cancelAll();
+		if (snapshotCache != null)
+			snapshotCache.invalidateAll();
+		if (this.adapter == null) {
+			recycleBin.clear();
+			requestLayout();
+			invalidate();
 			return;
-
-		for (int i = 0; i < Math.min(this.adapter.getCount(), sideBuffer + 1); i++) {
-			loadedViews.addLast(makeAndAddView(i, true, null));
 		}
+		recycleBin.setViewTypeCount(this.adapter.getViewTypeCount());
+		if (this.adapter.getCount() == 0)
+			return;
 
 		currentAdapterIndex = 0;
-		currentBufferIndex = 0;
-		requestLayout();
-		setVisibleView(currentBufferIndex, false);
-		if (viewSwitchListener != null)
-			viewSwitchListener.onSwitched(loadedViews.get(0), 0);
+		if (restoredPosition != INVALID_POSITION) {
+			currentAdapterIndex = Math.min(restoredPosition,
+					this.adapter.getCount() - 1);
+			restoredPosition = INVALID_POSITION;
+		}
+		if (firstLayout) {
+			// Bound by the first measure pass, so that a position restored or
+			// selected in the meantime is the only window ever bound
+			bindPending = true;
+			requestLayout();
+		} else {
+			reconcileWindow(currentAdapterIndex);
+			currentBufferIndex = loadedViews.indexOfPosition(currentAdapterIndex);
+			requestLayout();
+			setVisibleView(currentBufferIndex, false);
+			dispatchSwitched();
+		}
 
         if (indicator != null) {
             indicator.onSetAdapter();
         }
 	}
 
+	/**
+	 * Binds the window of a pending selection. The scroll offset is set by the first
+	 * measure pass that calls this.
+	 */
+	private void bindSelection() {
+		if (adapter == null || adapter.getCount() == 0)
+			return;
+
+		reconcileWindow(currentAdapterIndex);
+		currentBufferIndex = loadedViews.indexOfPosition(currentAdapterIndex);
+		currentScreen = currentBufferIndex;
+		// Listeners hear about the first page once it is laid out
+		switchPending = true;
+	}
+
+	private final Runnable dispatchPendingSwitch = new Runnable() {
+
+		@Override
+		public void run() {
+			if (!switchPending)
+				return;
+			dispatchSwitched();
+			if (metricsListener != null)
+				metricsListener.onSwitched(getCurrentPosition());
+		}
+	};
+
 	@Override
 	public View getSelectedView() {
-		return (currentAdapterIndex < loadedViews.size() ? loadedViews
-				.get(currentBufferIndex) : null);
+		// Asked for before the first measure pass, the window is bound right away
+		if (bindPending) {
+			bindPending = false;
+			bindSelection();
+		}
+		return getBoundSelectedView();
+	}
+
+	/**
+	 * @return the current page if it is bound, without binding a pending window
+	 */
+	private View getBoundSelectedView() {
+		return loadedViews.getAtPosition(currentAdapterIndex);
 	}
 
 	public void setFlowIndicator(FlowIndicator flowIndicator) {
@@ -451,149 +1447,417 @@ public class ViewFlow extends AdapterView<Adapter> {
 
 	@Override
 	public void setSelection(int position) {
-		if (adapter == null || position >= adapter.getCount())
+		if (adapter == null || position < 0 || position >= adapter.getCount())
 			return;
 
-		ArrayList<View> recycleViews = new ArrayList<View>();
-		View recycleView;
-		while (!loadedViews.isEmpty()) {
-			recycleViews.add(recycleView = loadedViews.remove());
-			detachViewFromParent(recycleView);
+		if (bindPending) {
+			currentAdapterIndex = position;
+			return;
 		}
 
-		for (int i = Math.max(0, position - sideBuffer); i < Math.min(
-				adapter.getCount(), position + sideBuffer + 1); i++) {
-			loadedViews.addLast(makeAndAddView(i, true,
-					(recycleViews.isEmpty() ? null : recycleViews.remove(0))));
-			if (i == position)
-				currentBufferIndex = loadedViews.size() - 1;
-		}
+		if (isCircular())
+			position = currentAdapterIndex
+					+ getShortestDelta(getCurrentPosition(), position);
+
+		if (bufferPolicy != null)
+			bufferPolicy.onSwitched(position - currentAdapterIndex, 0);
+		// Set first, the buffer change reports the page at the new index as visible
 		currentAdapterIndex = position;
+		reconcileWindow(position);
+		currentBufferIndex = loadedViews.indexOfPosition(position);
 
-		for (View view : recycleViews) {
-			removeDetachedView(view, false);
-		}
-		requestLayout();
+		if (!relayoutByOffset())
+			requestLayout();
 		setVisibleView(currentBufferIndex, false);
-		if (viewSwitchListener != null) {
-			if (indicator != null) {
-				indicator.onSwitched(loadedViews.get(currentBufferIndex),
-                        currentAdapterIndex);
-			}
-			viewSwitchListener
-					.onSwitched(loadedViews.get(currentBufferIndex),
-                            currentAdapterIndex);
-		}
+		dispatchSwitched();
+		if (metricsListener != null)
+			metricsListener.onSwitched(getCurrentPosition());
+		scheduleSnapshotCapture();
 	}
 
 	private void resetFocus() {
-		logBuffer();
-		loadedViews.clear();
-		removeAllViewsInLayout();
+		if (bindPending)
+			return;
 
-		for (int i = Math.max(0, currentAdapterIndex - sideBuffer); i < Math
-				.min(adapter.getCount(), currentAdapterIndex + sideBuffer
-						+ 1); i++) {
-			loadedViews.addLast(makeAndAddView(i, true, null));
-			if (i == currentAdapterIndex)
-				currentBufferIndex = loadedViews.size() - 1;
+		final int bindsBefore = bindCount;
+		final int previousScreen = currentScreen;
+		if (adapter.hasStableIds()) {
+			rebindChangedItems(currentAdapterIndex);
+		} else {
+			while (!loadedViews.isEmpty()) {
+				recycleView(loadedViews.removeFirst());
+			}
+			reconcileWindow(currentAdapterIndex);
 		}
-		logBuffer();
+		currentBufferIndex = loadedViews.indexOfPosition(currentAdapterIndex);
 		requestLayout();
+		if (currentBufferIndex >= 0) {
+			if (isScrolling())
+				followRebuiltBuffer(currentBufferIndex - previousScreen);
+			else
+				setVisibleView(currentBufferIndex, true);
+		}
+		if (metricsListener != null)
+			metricsListener.onDataSetRebuilt(bindCount - bindsBefore,
+					loadedViews.size());
 	}
 
-	private void postViewSwitched(int direction) {
-		if (direction == 0)
-			return;
-
-		if (direction > 0) { // to the right
-			currentAdapterIndex++;
-			currentBufferIndex++;
+	/**
+	 * Lets a drag or snap go on over a rebuilt buffer whose current page moved by
+	 * {@code screens} slots. A snap keeps its motion unless the offset has to move
+	 * with the pages, then it starts again from there towards the same page.
+	 */
+	private void followRebuiltBuffer(int screens) {
+		currentScreen = currentBufferIndex;
+		final int target = nextScreen;
+		if (screens != 0) {
+			animator.stop();
+			scrollBy(screens * getWidth(), 0);
+		}
+		if (target != INVALID_SCREEN)
+			snapToScreen(target + screens, 0);
+	}
 
-			View recycleView = null;
+	/**
+	 * Rebinds the buffered pages of the {@code count} adapter positions from
+	 * {@code start} on, whose items just finished loading. The buffer, the scroll
+	 * offset and a drag or snap in progress are left alone.
+	 */
+	private void rebindPages(int start, int count) {
+		if (bindPending || adapter == null)
+			return;
 
-			// Remove view outside buffer range
-			if (currentAdapterIndex > sideBuffer) {
-				recycleView = loadedViews.removeFirst();
-				detachViewFromParent(recycleView);
-				// removeView(recycleView);
-				currentBufferIndex--;
+		boolean rebound = false;
+		boolean replaced = false;
+		for (int i = 0; i < loadedViews.size(); i++) {
+			final View view = loadedViews.get(i);
+			final LayoutParams lp = (LayoutParams) view.getLayoutParams();
+			if (lp.position < start || lp.position >= start + count)
+				continue;
+
+			if (asyncBinder != null)
+				asyncBinder.cancel(view);
+			final View bound = bindView(lp.position, view);
+			if (bound != view) {
+				dispatchPageEvicted(view);
+				detachViewFromParent(view);
+				scrapView(view);
+				loadedViews.set(i, setupChild(bound, lp.position, i, false,
+						lp.viewType, lp.itemId));
+				dispatchPageEntered(bound);
+				replaced = true;
 			}
+			if (snapshotCache != null)
+				snapshotCache.invalidate(lp.position);
+			rebound = true;
+		}
+		if (replaced) {
+			requestLayout();
+			dispatchBufferChanged();
+		}
+		if (rebound && snapshotCache != null)
+			scheduleSnapshotCapture();
+	}
 
-			// Add new view to buffer
-			int newBufferIndex = currentAdapterIndex + sideBuffer;
-			if (newBufferIndex < adapter.getCount())
-				loadedViews.addLast(makeAndAddView(newBufferIndex, true,
-						recycleView));
-
-		} else { // to the left
-			currentAdapterIndex--;
-			currentBufferIndex--;
-			View recycleView = null;
-
-			// Remove view outside buffer range
-			if (adapter.getCount() - 1 - currentAdapterIndex > sideBuffer) {
-				recycleView = loadedViews.removeLast();
-				detachViewFromParent(recycleView);
-			}
+	/**
+	 * Rebuilds the buffer around {@code position} after a data change of an adapter
+	 * with stable ids, keeping the pages whose item is still in range.
+	 */
+	private void rebindChangedItems(int position) {
+		pageBuffer.rebindChangedItems(position);
+		dispatchBufferChanged();
+	}
 
-			// Add new view to buffer
-			int newBufferIndex = currentAdapterIndex - sideBuffer;
-			if (newBufferIndex > -1) {
-				loadedViews.addFirst(makeAndAddView(newBufferIndex, false,
-						recycleView));
-				currentBufferIndex++;
-			}
+	private void postViewSwitched(int screen) {
+		final int direction = loadedViews.getFirstPosition() + screen
+				- currentAdapterIndex;
+		if (direction == 0) {
+			currentScreen = currentBufferIndex;
+			return;
+		}
 
+		currentAdapterIndex += direction;
+		if (bufferPolicy != null) {
+			bufferPolicy.onSwitched(direction, lastFlingVelocity);
+			lastFlingVelocity = 0;
 		}
+		reconcileWindow(currentAdapterIndex);
+		currentBufferIndex = loadedViews.indexOfPosition(currentAdapterIndex);
 
-		requestLayout();
+		if (!relayoutByOffset())
+			requestLayout();
 		setVisibleView(currentBufferIndex, true);
-		if (indicator != null) {
-			indicator.onSwitched(loadedViews.get(currentBufferIndex),
-                    currentAdapterIndex);
+		dispatchSwitched();
+		if (metricsListener != null)
+			metricsListener.onSwitched(getCurrentPosition());
+		scheduleSnapshotCapture();
+	}
+
+	/**
+	 * Moves the buffer so that it covers {@code position} and its side buffers.
+	 */
+	private void reconcileWindow(int position) {
+		pageBuffer.reconcile(position);
+		dispatchBufferChanged();
+	}
+
+	private void dispatchBufferChanged() {
+		if (metricsListener != null)
+			metricsListener.onBufferChanged(loadedViews.size());
+
+		final View selected = getBoundSelectedView();
+		if (selected != visiblePage) {
+			if (visiblePage != null && pageLifecycleListener != null)
+				pageLifecycleListener.onPageHidden(
+						((LayoutParams) visiblePage.getLayoutParams()).position,
+						visiblePage);
+			visiblePage = selected;
+			if (selected != null && pageLifecycleListener != null)
+				pageLifecycleListener.onPageVisible(
+						((LayoutParams) selected.getLayoutParams()).position,
+						selected);
 		}
-		if (viewSwitchListener != null) {
-			viewSwitchListener
-					.onSwitched(loadedViews.get(currentBufferIndex),
-                            currentAdapterIndex);
+		updatePrefetchRange();
+	}
+
+	private void dispatchPageEntered(View view) {
+		if (pageLifecycleListener != null)
+			pageLifecycleListener.onPageEntered(
+					((LayoutParams) view.getLayoutParams()).position, view);
+	}
+
+	private void dispatchPageEvicted(View view) {
+		final int position = ((LayoutParams) view.getLayoutParams()).position;
+		if (view == visiblePage) {
+			visiblePage = null;
+			if (pageLifecycleListener != null)
+				pageLifecycleListener.onPageHidden(position, view);
 		}
-		logBuffer();
+		if (pageLifecycleListener != null)
+			pageLifecycleListener.onPageEvicted(position, view);
 	}
 
-	private View setupChild(View child, boolean addToEnd, boolean recycle) {
-		LayoutParams p = (LayoutParams) child
-				.getLayoutParams();
-		if (p == null) {
-			p = new AbsListView.LayoutParams(
-					LayoutParams.MATCH_PARENT,
-					LayoutParams.WRAP_CONTENT, 0);
+	/**
+	 * Moves the prefetch range to {@code prefetchDistance} pages beyond both ends of
+	 * the buffer. Positions leaving the range are released, positions entering it
+	 * outside the buffer are prefetched, nearest to the buffer first.
+	 */
+	private void updatePrefetchRange() {
+		int first = 0;
+		int last = -1;
+		if (prefetchListener != null && prefetchDistance > 0
+				&& !loadedViews.isEmpty()) {
+			first = Math.max(getMinPosition(), loadedViews.getFirstPosition()
+					- prefetchDistance);
+			last = Math.min(getMaxPosition(), loadedViews.getLastPosition()
+					+ prefetchDistance);
+		}
+
+		for (int p = prefetchFirst; p <= prefetchLast; p++) {
+			if (p < first || p > last)
+				prefetchListener.onPrefetchReleased(toAdapterPosition(p));
+		}
+		if (first <= last) {
+			for (int p = loadedViews.getLastPosition() + 1; p <= last; p++) {
+				if (p < prefetchFirst || p > prefetchLast)
+					prefetchListener.onPrefetch(toAdapterPosition(p));
+			}
+			for (int p = loadedViews.getFirstPosition() - 1; p >= first; p--) {
+				if (p < prefetchFirst || p > prefetchLast)
+					prefetchListener.onPrefetch(toAdapterPosition(p));
+			}
 		}
+		prefetchFirst = first;
+		prefetchLast = last;
+	}
+
+	private View setupChild(View child, int position, boolean addToEnd,
+			boolean recycle, int viewType, long itemId) {
+		return setupChild(child, position, (addToEnd ? -1 : 0), recycle,
+				viewType, itemId);
+	}
+
+	private View setupChild(View child, int position, int index,
+			boolean recycle, int viewType, long itemId) {
+		ViewGroup.LayoutParams lp = child.getLayoutParams();
+		LayoutParams p;
+		if (lp == null) {
+			p = generateDefaultLayoutParams();
+		} else if (!checkLayoutParams(lp)) {
+			p = generateLayoutParams(lp);
+		} else {
+			p = (LayoutParams) lp;
+		}
+		p.position = position;
+		p.viewType = viewType;
+		p.itemId = itemId;
 		if (recycle)
-			attachViewToParent(child, (addToEnd ? -1 : 0), p);
+			attachViewToParent(child, index, p);
 		else
-			addViewInLayout(child, (addToEnd ? -1 : 0), p, true);
+			addViewInLayout(child, index, p, true);
 		return child;
 	}
 
-	private View makeAndAddView(int position, boolean addToEnd, View convertView) {
+	private View makeAndAddView(int bufferPosition, boolean addToEnd) {
+		final int position = toAdapterPosition(bufferPosition);
+		int viewType = adapter.getItemViewType(position);
+		View convertView = (pageViewPool != null ? pageViewPool.get(viewType)
+				: recycleBin.getScrapView(viewType));
+		View view = bindView(position, convertView);
+		if (convertView != null && view != convertView) {
+			if (pageViewPool != null)
+				pageViewPool.put(viewType, convertView);
+			else
+				recycleBin.addScrapView(convertView, viewType);
+		}
+		// Pooled views were fully removed from their flow and are added anew
+		setupChild(view, position, addToEnd,
+				view == convertView && pageViewPool == null, viewType,
+				adapter.hasStableIds() ? adapter.getItemId(position)
+						: INVALID_ROW_ID);
+		dispatchPageEntered(view);
+		return view;
+	}
+
+	/**
+	 * Gets the page of an adapter position through {@code getView}, timing the bind
+	 * for the metrics, and starts its second binding phase for async adapters.
+	 */
+	private View bindView(int position, View convertView) {
+		final boolean timed = (metricsListener != null || frameTracker != null);
+		final long bindStart = (timed ? System.nanoTime() : 0);
 		View view = adapter.getView(position, convertView, this);
-		return setupChild(view, addToEnd, convertView != null);
+		bindCount++;
+		if (timed) {
+			final long bindNanos = System.nanoTime() - bindStart;
+			if (metricsListener != null)
+				metricsListener.onPageBound(position, bindNanos,
+						convertView != null && view == convertView);
+			if (frameTracker != null)
+				frameTracker.onPageBound(bindNanos);
+		}
+		if (adapter instanceof AsyncPageAdapter) {
+			getAsyncBinder().bind((AsyncPageAdapter) adapter, position, view);
+		}
+		return view;
+	}
+
+	/**
+	 * Detaches a view that left the buffer and hands it to the scrap heap of its view type.
+	 */
+	private void recycleView(View view) {
+		if (asyncBinder != null)
+			asyncBinder.cancel(view);
+		dispatchPageEvicted(view);
+		detachViewFromParent(view);
+		scrapView(view);
+	}
+
+	/**
+	 * Hands a detached view to the scrap heap. A shared pool only takes views without
+	 * a parent, so they are removed from this flow for good first.
+	 */
+	private void scrapView(View view) {
+		final int viewType = ((LayoutParams) view.getLayoutParams()).viewType;
+		if (pageViewPool != null) {
+			removeDetachedView(view, false);
+			pageViewPool.put(viewType, view);
+		} else {
+			recycleBin.addScrapView(view, viewType);
+		}
+	}
+
+	@Override
+	protected LayoutParams generateDefaultLayoutParams() {
+		return new LayoutParams(LayoutParams.MATCH_PARENT,
+				LayoutParams.WRAP_CONTENT);
+	}
+
+	@Override
+	public LayoutParams generateLayoutParams(AttributeSet attrs) {
+		return new LayoutParams(getContext(), attrs);
+	}
+
+	@Override
+	protected LayoutParams generateLayoutParams(ViewGroup.LayoutParams p) {
+		return new LayoutParams(p);
+	}
+
+	@Override
+	protected boolean checkLayoutParams(ViewGroup.LayoutParams p) {
+		return p instanceof LayoutParams;
+	}
+
+	/**
+	 * Layout parameters of ViewFlow pages. They remember the adapter position, view
+	 * type and stable item id a page was bound with, so the page can go back to the
+	 * matching scrap heap and be kept across data set changes.
+	 */
+	public static class LayoutParams extends ViewGroup.LayoutParams {
+		int position;
+		int viewType;
+		long itemId = INVALID_ROW_ID;
+
+		public LayoutParams(Context c, AttributeSet attrs) {
+			super(c, attrs);
+		}
+
+		public LayoutParams(int width, int height) {
+			super(width, height);
+		}
+
+		public LayoutParams(ViewGroup.LayoutParams source) {
+			super(source);
+		}
+	}
+
+	static class SavedState extends BaseSavedState {
+		int position = INVALID_POSITION;
+
+		SavedState(Parcelable superState) {
+			super(superState);
+		}
+
+		private SavedState(Parcel in) {
+			super(in);
+			position = in.readInt();
+		}
+
+		@Override
+		public void writeToParcel(Parcel out, int flags) {
+			super.writeToParcel(out, flags);
+			out.writeInt(position);
+		}
+
+		public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+			public SavedState createFromParcel(Parcel in) {
+				return new SavedState(in);
+			}
+
+			public SavedState[] newArray(int size) {
+				return new SavedState[size];
+			}
+		};
 	}
 
 	class AdapterDataSetObserver extends DataSetObserver {
 
 		@Override
 		public void onChanged() {
-			View v = getChildAt(currentBufferIndex);
-			if (v != null) {
-				for (int index = 0; index < adapter.getCount(); index++) {
-					if (v.equals(adapter.getItem(index))) {
-						currentAdapterIndex = index;
-						break;
-					}
-				}
+			if (snapshotCache != null)
+				snapshotCache.invalidateAll();
+			// Buffer positions restart from the adapter position of the current page
+			View v = getBoundSelectedView();
+			int position = (v != null ? ((LayoutParams) v.getLayoutParams()).position
+					: currentAdapterIndex);
+			if (v != null && adapter.hasStableIds()) {
+				int found = pageBuffer.findItemPosition(
+						((LayoutParams) v.getLayoutParams()).itemId, position);
+				if (found != INVALID_POSITION)
+					position = found;
 			}
+			currentAdapterIndex = Math.max(0,
+					Math.min(position, adapter.getCount() - 1));
 			resetFocus();
 		}
 
@@ -603,11 +1867,4 @@ public class ViewFlow extends AdapterView<Adapter> {
 
 	}
 
-	private void logBuffer() {
-
-		Log.d("viewflow", "Size of loadedViews: " + loadedViews.size() +
-				"X: " + scroller.getCurrX() + ", Y: " + scroller.getCurrY());
-		Log.d("viewflow", "IndexInAdapter: " + currentAdapterIndex
-				+ ", IndexInBuffer: " + currentBufferIndex);
-	}
 }